@@ -0,0 +1,56 @@
+package com.yolt.providers.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.apache.coyote.ActionCode;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Asks Tomcat to close a kept alive connection after the response once the connection is older than the maximum age.
+ * <p>
+ * Tomcat does not expose the age of a connection, so a connection is recognized by the address and port of the socket
+ * of the caller (not the forwarded address) and its age is counted from its first request. A connection that has been
+ * idle for longer than the keep-alive timeout has been closed by Tomcat, so it is forgotten as well.
+ */
+class ConnectionMaxAgeValve extends ValveBase {
+
+    private final Cache<String, Long> connectionsFirstSeen;
+    private final long connectionMaxAgeInMillis;
+    private final Counter closedConnections;
+
+    ConnectionMaxAgeValve(final Duration connectionMaxAge,
+                          final Duration keepAliveTimeout,
+                          final Counter closedConnections) {
+        super(true);
+        this.connectionMaxAgeInMillis = connectionMaxAge.toMillis();
+        this.closedConnections = closedConnections;
+        this.connectionsFirstSeen = Caffeine.newBuilder()
+                .expireAfterAccess(keepAliveTimeout)
+                .build();
+    }
+
+    @Override
+    public void invoke(final Request request, final Response response) throws IOException, ServletException {
+        org.apache.coyote.Request coyoteRequest = request.getCoyoteRequest();
+        coyoteRequest.action(ActionCode.REQ_HOST_ADDR_ATTRIBUTE, coyoteRequest);
+        coyoteRequest.action(ActionCode.REQ_REMOTEPORT_ATTRIBUTE, coyoteRequest);
+        String connection = coyoteRequest.remoteAddr().toString() + ":" + coyoteRequest.getRemotePort();
+
+        long now = System.currentTimeMillis();
+        long firstSeen = connectionsFirstSeen.get(connection, c -> now);
+        if (now - firstSeen >= connectionMaxAgeInMillis) {
+            connectionsFirstSeen.invalidate(connection);
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            closedConnections.increment();
+        }
+        getNext().invoke(request, response);
+    }
+}
@@ -1,5 +1,9 @@
 package com.yolt.providers.web;
 
+import com.yolt.providers.web.configuration.InboundConnectionProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.coyote.ProtocolHandler;
 import org.apache.coyote.http11.AbstractHttp11Protocol;
@@ -7,21 +11,50 @@ import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactor
 import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Configuration;
 
+/**
+ * Keep-alive is disabled unless yolt.providers.inbound-connection.keep-alive-enabled is set. The connection metrics of
+ * Tomcat (tomcat.connections.*, tomcat.global.*, tomcat.threads.*) are exported with server.tomcat.mbeanregistry.enabled.
+ */
 @Slf4j
 @Configuration
+@RequiredArgsConstructor
 public class TomcatWebServerCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
 
+    private final InboundConnectionProperties inboundConnectionProperties;
+    private final MeterRegistry meterRegistry;
+
     @Override
     public void customize(TomcatServletWebServerFactory factory) {
-        // customize the factory here
+        if (!inboundConnectionProperties.isKeepAliveEnabled()) {
+            factory.addConnectorCustomizers(connector -> {
+
+                ProtocolHandler protocolHandler = connector.getProtocolHandler();
+                if (protocolHandler instanceof AbstractHttp11Protocol) {
+                    log.info("disabled connection keep alive");
+                    ((AbstractHttp11Protocol) protocolHandler).setMaxKeepAliveRequests(1); // disable keep-alive and pipelining
+                }
+
+            });
+            return;
+        }
+
         factory.addConnectorCustomizers(connector -> {
 
             ProtocolHandler protocolHandler = connector.getProtocolHandler();
             if (protocolHandler instanceof AbstractHttp11Protocol) {
-                log.info("disabled connection keep alive");
-                ((AbstractHttp11Protocol) protocolHandler).setMaxKeepAliveRequests(1); // disable keep-alive and pipelining
+                AbstractHttp11Protocol<?> http11Protocol = (AbstractHttp11Protocol<?>) protocolHandler;
+                http11Protocol.setMaxKeepAliveRequests(inboundConnectionProperties.getMaxKeepAliveRequests());
+                http11Protocol.setKeepAliveTimeout((int) inboundConnectionProperties.getKeepAliveTimeout().toMillis());
+                log.info("enabled connection keep alive for at most {} requests and {} per connection",
+                        inboundConnectionProperties.getMaxKeepAliveRequests(), inboundConnectionProperties.getConnectionMaxAge());
             }
 
         });
+        factory.addEngineValves(new ConnectionMaxAgeValve(
+                inboundConnectionProperties.getConnectionMaxAge(),
+                inboundConnectionProperties.getKeepAliveTimeout(),
+                Counter.builder("inbound_connections_closed_max_age")
+                        .description("Kept alive connections that were closed because they reached their maximum age")
+                        .register(meterRegistry)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.yolt.providers.web.authenticationmeans;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yolt.providers.common.domain.authenticationmeans.BasicAuthenticationMean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+import lombok.Value;
+import nl.ing.lovebird.providerdomain.ServiceType;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Keeps decrypted authentication means in memory, so a provider call does not have to go to Cassandra and decrypt
+ * the stored value each time.
+ * <p>
+ * Every write to one of the authentication means tables must evict the affected entries <b>after</b> the write
+ * has been done. Writes done by other pods are evicted by {@link ClientAuthenticationMeansConsumer}. Callers always
+ * get their own copy of the cached map, as some of them modify the returned value.
+ */
+@Component
+class AuthenticationMeansCache {
+
+    private static final String CACHE_NAME = "authenticationMeansCache";
+
+    private final Cache<GenerationKey, Map<String, BasicAuthenticationMean>> cache;
+
+    /**
+     * The generation of the entries of a client and provider, raised by {@link #evictClient(UUID, String)}. A load that
+     * is still in flight during the eviction can only store its (possibly stale) value under the previous generation,
+     * which is never read again.
+     * <p>
+     * That value expires within the expiry of the cache after it was stored, so a generation only has to be kept a bit
+     * longer than that. It is kept for twice the expiry, after which the client starts at generation 0 again.
+     */
+    private final Cache<ClientAndProvider, Long> clientGenerations;
+
+    AuthenticationMeansCache(final AuthenticationMeansCacheProperties properties,
+                             final MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.clientGenerations = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite().multipliedBy(2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached authentication means for the given key, or loads them with the given loader.
+     * Absent authentication means are not cached.
+     */
+    Optional<Map<String, BasicAuthenticationMean>> get(final Key key,
+                                                       final Supplier<Optional<Map<String, BasicAuthenticationMean>>> loader) {
+        Map<String, BasicAuthenticationMean> authenticationMeans = cache.get(generationKey(key), k -> loader.get()
+                .map(loaded -> Collections.unmodifiableMap(new HashMap<>(loaded)))
+                .orElse(null));
+        return Optional.ofNullable(authenticationMeans).map(HashMap::new);
+    }
+
+    /**
+     * Waits for a load of the same key that is still in flight, so the value it loaded is evicted as well.
+     */
+    void evict(final Key key) {
+        cache.invalidate(generationKey(key));
+    }
+
+    /**
+     * Client level authentication means (without redirect url) are the fallback for every redirect url and service
+     * type of that client, so all entries of the client for the given provider are evicted. The keys of loads that are
+     * still in flight are not known, so the generation of the client is raised instead of waiting for them.
+     */
+    void evictClient(@NonNull final UUID clientId, @NonNull final String provider) {
+        clientGenerations.asMap().merge(new ClientAndProvider(clientId, provider), 1L, Long::sum);
+        cache.asMap().keySet().removeIf(generationKey -> clientId.equals(generationKey.getKey().getClientId())
+                && provider.equals(generationKey.getKey().getProvider()));
+    }
+
+    private GenerationKey generationKey(final Key key) {
+        if (key.getClientId() == null) {
+            return new GenerationKey(key, 0L);
+        }
+        return new GenerationKey(key, clientGenerations.asMap().getOrDefault(new ClientAndProvider(key.getClientId(), key.getProvider()), 0L));
+    }
+
+    @Value
+    private static class ClientAndProvider {
+
+        UUID clientId;
+        String provider;
+    }
+
+    @Value
+    private static class GenerationKey {
+
+        Key key;
+        long generation;
+    }
+
+    @Value
+    static class Key {
+
+        UUID clientId;
+        UUID clientGroupId;
+        UUID redirectUrlId;
+        ServiceType serviceType;
+        @NonNull
+        String provider;
+
+        static Key forClient(@NonNull final UUID clientId,
+                             @NonNull final UUID redirectUrlId,
+                             @NonNull final ServiceType serviceType,
+                             final String provider) {
+            return new Key(clientId, null, redirectUrlId, serviceType, provider);
+        }
+
+        static Key forClientGroup(@NonNull final UUID clientGroupId,
+                                  @NonNull final UUID redirectUrlId,
+                                  @NonNull final ServiceType serviceType,
+                                  final String provider) {
+            return new Key(null, clientGroupId, redirectUrlId, serviceType, provider);
+        }
+
+        /**
+         * Scraping providers only.
+         */
+        static Key forScraping(@NonNull final UUID clientId, final String provider) {
+            return new Key(clientId, null, null, null, provider);
+        }
+    }
+}
@@ -40,9 +40,9 @@ public class AuthenticationMeansEncryptionService {
     }
 
     public Map<String, BasicAuthenticationMean> decryptAuthenticationMeans(String authenticationMeans) {
-        String decrypt = AesEncryptionUtil.decrypt(authenticationMeans, vaultKeys.getAuthEncryptionKey());
+        byte[] decrypted = AesEncryptionUtil.getEngine(vaultKeys.getAuthEncryptionKey()).decryptToBytes(authenticationMeans);
         try {
-            return objectMapper.readValue(decrypt, TYPE_REF_AUTHENTICATION_MEANS_LIST);
+            return objectMapper.readValue(decrypted, TYPE_REF_AUTHENTICATION_MEANS_LIST);
         } catch (IOException e) {
             throw new JsonParseException(e, "Unable to deserialize authentication means");
         }
@@ -50,8 +50,8 @@ public class AuthenticationMeansEncryptionService {
 
     public String encryptAuthenticationMeans(Map<String, BasicAuthenticationMean> authenticationMeans) {
         try {
-            String setAsJson = objectMapper.writeValueAsString(authenticationMeans);
-            return AesEncryptionUtil.encrypt(setAsJson, vaultKeys.getAuthEncryptionKey());
+            byte[] json = objectMapper.writeValueAsBytes(authenticationMeans);
+            return AesEncryptionUtil.getEngine(vaultKeys.getAuthEncryptionKey()).encrypt(json);
         } catch (JsonProcessingException e) {
             throw new JsonParseException(e, "Unable to serialize authentication means");
         }
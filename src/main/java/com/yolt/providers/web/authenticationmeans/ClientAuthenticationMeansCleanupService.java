@@ -35,6 +35,7 @@ public class ClientAuthenticationMeansCleanupService {
     private final ClientAuthenticationMeansRepository clientAuthenticationMeansRepository;
     private final AuthenticationMeansEncryptionService authenticationMeansEncryptionService;
     private final AuthenticationMeansMapperService authenticationMeansMapperService;
+    private final AuthenticationMeansCache authenticationMeansCache;
 
     public void cleanupProviderAuthenticationMeans(ClientToken clientToken,
                                                    String providerKey,
@@ -93,6 +94,7 @@ public class ClientAuthenticationMeansCleanupService {
         ClientRedirectUrlProviderClientConfiguration createdObject = new ClientRedirectUrlProviderClientConfiguration(
                 clientId, redirectUrlId, serviceType, providerName, authenticationMeans, Instant.now(clock));
         clientRedirectUrlClientConfigurationRepository.upsert(authenticationMeansMapperService.mapToInternal(createdObject));
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClient(clientId, redirectUrlId, serviceType, providerName));
         meansEventDispatcherService.publishAuthenticationMeansUpdatedEvent(createdObject);
         log.info("Cleaned provider authentication means were saved.");
     }
@@ -0,0 +1,68 @@
+package com.yolt.providers.web.authenticationmeans;
+
+import com.yolt.providers.web.cryptography.VaultService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Evicts the {@link AuthenticationMeansCache} of this pod whenever authentication means are changed by any pod. The
+ * private keys of the client (group) that are cached by the {@link VaultService} are invalidated as well, as changed
+ * authentication means can refer to a rotated key.
+ * <p>
+ * Every pod has to see every event, so the listener assigns all partitions of the topic to itself instead of joining
+ * a consumer group. The group id is only used for the offsets that the container commits, it is the same for all pods,
+ * so no consumer group is left behind when a pod goes away. Events published before the pod started are not relevant
+ * for an empty cache, hence the consumer seeks to the end of the partitions when it starts, whatever was committed.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+class ClientAuthenticationMeansConsumer implements ConsumerSeekAware {
+
+    private final AuthenticationMeansCache authenticationMeansCache;
+    private final VaultService vaultService;
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = "${yolt.kafka.topics.clientAuthenticationMeans.topic-name}",
+            partitions = "#{@kafkaTopicPartitionFinder.partitions('${yolt.kafka.topics.clientAuthenticationMeans.topic-name}')}"),
+            groupId = "${yolt.kafka.consumer-group:providers}-authentication-means-cache",
+            properties = "enable.auto.commit=false")
+    public void clientAuthenticationMeansUpdate(@Payload final ClientAuthenticationMeansDTO clientAuthenticationMeansDTO,
+                                                @Header("payload-type") final String payloadType) {
+        try {
+            log.debug("Got {} for provider {}, evicting cached authentication means.", payloadType, clientAuthenticationMeansDTO.getProvider());
+            processEvent(clientAuthenticationMeansDTO, ClientAuthenticationMeansMessageType.valueOf(payloadType));
+        } catch (Exception e) {
+            log.error("Unexpected exception reading client authentication means update: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(final Map<org.apache.kafka.common.TopicPartition, Long> assignments, final ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    private void processEvent(final ClientAuthenticationMeansDTO dto, final ClientAuthenticationMeansMessageType messageType) {
+        if (ClientAuthenticationMeansMessageType.CLIENT_GROUP_AUTHENTICATION_MEANS_UPDATED == messageType
+                || ClientAuthenticationMeansMessageType.CLIENT_GROUP_AUTHENTICATION_MEANS_DELETED == messageType) {
+            authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClientGroup(
+                    dto.getClientGroupId(), dto.getRedirectUrlId(), dto.getServiceType(), dto.getProvider()));
+            vaultService.invalidateClientGroupPrivateKeys(dto.getClientGroupId());
+        } else if (dto.getRedirectUrlId() != null && dto.getServiceType() != null) {
+            authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClient(
+                    dto.getClientId(), dto.getRedirectUrlId(), dto.getServiceType(), dto.getProvider()));
+            vaultService.invalidateClientPrivateKeys(dto.getClientId());
+        } else {
+            // Scraping providers only, these authentication means are the fallback for every redirect url of the client.
+            authenticationMeansCache.evictClient(dto.getClientId(), dto.getProvider());
+            vaultService.invalidateClientPrivateKeys(dto.getClientId());
+        }
+    }
+}
@@ -64,6 +64,7 @@ public class ClientAuthenticationMeansService {
     private final ClientAuthenticationMeansCertificateVerifierService clientAuthenticationMeansCertificateVerifierService;
     private final AuthenticationMeansEncryptionService authenticationMeansEncryptionService;
     private final AuthenticationMeansMapperService authenticationMeansMapperService;
+    private final AuthenticationMeansCache authenticationMeansCache;
 
     public ClientAuthenticationMeansService(final Clock clock,
                                             final ProviderFactoryService providerFactory,
@@ -77,7 +78,8 @@ public class ClientAuthenticationMeansService {
                                             final MutualTLSRestTemplateManagerCache restTemplateManagerCache,
                                             final ClientAuthenticationMeansCertificateVerifierService clientAuthenticationMeansCertificateVerifierService,
                                             final AuthenticationMeansEncryptionService authenticationMeansEncryptionService,
-                                            final AuthenticationMeansMapperService authenticationMeansMapperService) {
+                                            final AuthenticationMeansMapperService authenticationMeansMapperService,
+                                            final AuthenticationMeansCache authenticationMeansCache) {
         this.clock = clock;
         this.providerFactory = providerFactory;
         this.clientRedirectUrlClientConfigurationRepository = clientRedirectUrlClientConfigurationRepository;
@@ -91,6 +93,7 @@ public class ClientAuthenticationMeansService {
         this.clientAuthenticationMeansCertificateVerifierService = clientAuthenticationMeansCertificateVerifierService;
         this.authenticationMeansEncryptionService = authenticationMeansEncryptionService;
         this.authenticationMeansMapperService = authenticationMeansMapperService;
+        this.authenticationMeansCache = authenticationMeansCache;
     }
 
     /**
@@ -104,7 +107,9 @@ public class ClientAuthenticationMeansService {
         MDC.put(CLIENT_ID_HEADER_NAME, String.valueOf(clientId));
 
         // This wasn't converted yet to take into account serviceType.
-        Optional<Map<String, BasicAuthenticationMean>> decryptedAuthenticationMeans = getDecryptedAuthenticationMeansWithoutException(clientId, provider);
+        Optional<Map<String, BasicAuthenticationMean>> decryptedAuthenticationMeans = authenticationMeansCache.get(
+                AuthenticationMeansCache.Key.forScraping(clientId, provider),
+                () -> getDecryptedAuthenticationMeansWithoutException(clientId, provider));
         decryptedAuthenticationMeans.ifPresent(authenticationMeanMap -> clientAuthenticationMeansCertificateVerifierService.checkExpirationOfCertificate(provider, ServiceType.AIS, new AuthenticationMeansReference(clientId, null), unmodifiableMap(authenticationMeanMap)));
         return decryptedAuthenticationMeans.orElse(Collections.emptyMap());
     }
@@ -122,7 +127,7 @@ public class ClientAuthenticationMeansService {
         MDC.put(CLIENT_ID_HEADER_NAME, String.valueOf(clientId));
 
         if (authenticationMeansReference.getClientGroupId() != null) {
-            Map<String, BasicAuthenticationMean> decryptedGroupAuthenticationMeans = getDecryptedGroupAuthenticationMeans(authenticationMeansReference.getClientGroupId(),
+            Map<String, BasicAuthenticationMean> decryptedGroupAuthenticationMeans = getCachedDecryptedGroupAuthenticationMeans(authenticationMeansReference.getClientGroupId(),
                     authenticationMeansReference.getRedirectUrlId(),
                     serviceType,
                     provider);
@@ -130,7 +135,7 @@ public class ClientAuthenticationMeansService {
             return decryptedGroupAuthenticationMeans;
         }
 
-        Map<String, BasicAuthenticationMean> decryptedAuthenticationMeans = getDecryptedAuthenticationMeans(authenticationMeansReference.getClientId(),
+        Map<String, BasicAuthenticationMean> decryptedAuthenticationMeans = getCachedDecryptedAuthenticationMeans(authenticationMeansReference.getClientId(),
                 authenticationMeansReference.getRedirectUrlId(),
                 serviceType,
                 provider);
@@ -138,12 +143,14 @@ public class ClientAuthenticationMeansService {
         return decryptedAuthenticationMeans;
     }
 
-    private Map<String, BasicAuthenticationMean> getDecryptedAuthenticationMeans(
+    private Map<String, BasicAuthenticationMean> getCachedDecryptedAuthenticationMeans(
             @NonNull final UUID clientId,
             @NonNull final UUID redirectUrlId,
             @NonNull final ServiceType serviceType,
             @NonNull final String provider) {
-        return getDecryptedAuthenticationMeansWithoutException(clientId, redirectUrlId, serviceType, provider)
+        return authenticationMeansCache.get(
+                        AuthenticationMeansCache.Key.forClient(clientId, redirectUrlId, serviceType, provider),
+                        () -> getDecryptedAuthenticationMeansWithoutException(clientId, redirectUrlId, serviceType, provider))
                 .orElseThrow(() -> new ClientConfigurationValidationException(clientId, redirectUrlId, serviceType, provider)
                 );
     }
@@ -172,12 +179,14 @@ public class ClientAuthenticationMeansService {
                 .map(clientAuthMeans -> authenticationMeansEncryptionService.decryptAuthenticationMeans(clientAuthMeans.getAuthenticationMeans()));
     }
 
-    private Map<String, BasicAuthenticationMean> getDecryptedGroupAuthenticationMeans(
+    private Map<String, BasicAuthenticationMean> getCachedDecryptedGroupAuthenticationMeans(
             @NonNull final UUID clientGroupId,
             @NonNull final UUID redirectUrlId,
             @NonNull final ServiceType serviceType,
             @NonNull final String provider) {
-        return getDecryptedGroupAuthenticationMeansWithoutException(clientGroupId, redirectUrlId, serviceType, provider)
+        return authenticationMeansCache.get(
+                        AuthenticationMeansCache.Key.forClientGroup(clientGroupId, redirectUrlId, serviceType, provider),
+                        () -> getDecryptedGroupAuthenticationMeansWithoutException(clientGroupId, redirectUrlId, serviceType, provider))
                 .orElseThrow(() -> new ClientConfigurationValidationException(clientGroupId, redirectUrlId, serviceType, provider)
                 );
     }
@@ -204,6 +213,7 @@ public class ClientAuthenticationMeansService {
         attemptAutoOnboardingDeletion(clientToken, clientId, redirectUrlId, serviceType, provider);
 
         clientRedirectUrlClientConfigurationRepository.delete(clientId, redirectUrlId, serviceType, provider);
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClient(clientId, redirectUrlId, serviceType, provider));
         meansEventDispatcherService.publishAuthenticationMeansDeletedEvent(clientId, redirectUrlId, serviceType, provider);
     }
 
@@ -260,6 +270,7 @@ public class ClientAuthenticationMeansService {
         attemptAutoOnboardingDeletion(clientGroupToken, redirectUrlId, serviceType, provider);
 
         clientGroupRedirectUrlClientConfigurationRepository.delete(clientGroupId, redirectUrlId, serviceType, provider);
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClientGroup(clientGroupId, redirectUrlId, serviceType, provider));
         meansEventDispatcherService.publishAuthenticationMeansDeletedGroupEvent(clientGroupId, redirectUrlId, serviceType, provider);
     }
 
@@ -307,6 +318,7 @@ public class ClientAuthenticationMeansService {
         MDC.put(CLIENT_ID_HEADER_NAME, String.valueOf(clientId));
 
         clientAuthenticationMeansRepository.delete(clientId, provider);
+        authenticationMeansCache.evictClient(clientId, provider);
         meansEventDispatcherService.publishAuthenticationMeansDeletedEvent(clientId, provider);
     }
 
@@ -638,6 +650,7 @@ public class ClientAuthenticationMeansService {
                 allAuthenticationMeans,
                 Instant.now(clock));
         clientAuthenticationMeansRepository.save(authenticationMeansMapperService.mapToInternal(createdObject));
+        authenticationMeansCache.evictClient(clientId, providerName);
         meansEventDispatcherService.publishAuthenticationMeansUpdatedEvent(createdObject);
     }
 
@@ -647,6 +660,7 @@ public class ClientAuthenticationMeansService {
         ClientRedirectUrlProviderClientConfiguration createdObject = new ClientRedirectUrlProviderClientConfiguration(
                 clientId, redirectUrlId, serviceType, providerName, allAuthenticationMeans, Instant.now(clock));
         clientRedirectUrlClientConfigurationRepository.upsert(authenticationMeansMapperService.mapToInternal(createdObject));
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClient(clientId, redirectUrlId, serviceType, providerName));
         meansEventDispatcherService.publishAuthenticationMeansUpdatedEvent(createdObject);
     }
 
@@ -656,6 +670,7 @@ public class ClientAuthenticationMeansService {
         ClientGroupRedirectUrlProviderClientConfiguration createdObject = new ClientGroupRedirectUrlProviderClientConfiguration(
                 clientGroupId, redirectUrlId, serviceType, providerName, allAuthenticationMeans, Instant.now(clock));
         clientGroupRedirectUrlClientConfigurationRepository.upsert(authenticationMeansMapperService.mapToInternal(createdObject));
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClientGroup(clientGroupId, redirectUrlId, serviceType, providerName));
         meansEventDispatcherService.publishAuthenticationMeansUpdatedEvent(createdObject);
     }
 
@@ -31,6 +31,7 @@ public class ClientGroupAuthenticationMeansCleanupService {
     private final ClientAuthenticationMeansEventDispatcherService meansEventDispatcherService;
     private final AuthenticationMeansEncryptionService authenticationMeansEncryptionService;
     private final AuthenticationMeansMapperService authenticationMeansMapperService;
+    private final AuthenticationMeansCache authenticationMeansCache;
 
 
     public void saveToAuthenticationMeans(UUID clientGroupId,
@@ -41,6 +42,7 @@ public class ClientGroupAuthenticationMeansCleanupService {
         ClientGroupRedirectUrlProviderClientConfiguration createdObject = new ClientGroupRedirectUrlProviderClientConfiguration(
                 clientGroupId, redirectUrlId, serviceType, providerName, authenticationMeans, Instant.now(clock));
         clientGroupRedirectUrlClientConfigurationRepository.upsert(authenticationMeansMapperService.mapToInternal(createdObject));
+        authenticationMeansCache.evict(AuthenticationMeansCache.Key.forClientGroup(clientGroupId, redirectUrlId, serviceType, providerName));
         meansEventDispatcherService.publishAuthenticationMeansUpdatedEvent(createdObject);
         log.info("Cleaned provider authentication means were saved.");
     }
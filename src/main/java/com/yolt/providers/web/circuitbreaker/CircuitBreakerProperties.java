@@ -0,0 +1,45 @@
+package com.yolt.providers.web.circuitbreaker;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.circuit-breaker")
+public class CircuitBreakerProperties {
+
+    private int timeLimiterSchedulerPoolSize = 4;
+    private BulkheadIsolation bulkheadIsolation = BulkheadIsolation.PROVIDER_AND_COMMAND;
+    /**
+     * Maximum number of calls running on or queued for bulkhead threads at the same time, over all bulkheads. A thread
+     * pool only starts threads above its core size for calls, so together with the isolation this bounds the number of
+     * bulkhead threads: at most the core threads of every bulkhead plus this number.
+     */
+    private int maxConcurrentBulkheadCalls = 1000;
+    private Duration idleTimeout = Duration.ofHours(1);
+    private long idleEvictionIntervalInMillis = 300_000;
+
+    /**
+     * Determines which calls share a thread pool bulkhead. Circuit breakers and time limiters are always kept per
+     * provider, redirect url and command. Every bulkhead keeps its core threads, so only the shared bulkheads keep the
+     * number of threads independent of the number of redirect urls.
+     */
+    public enum BulkheadIsolation {
+        /**
+         * A bulkhead per provider, redirect url and command, the same as the circuit breaker. The number of threads grows
+         * with the number of redirect urls that are used.
+         */
+        REDIRECT_URL,
+        /**
+         * A bulkhead per provider and command, shared by all redirect urls.
+         */
+        PROVIDER_AND_COMMAND,
+        /**
+         * A bulkhead per provider, shared by all redirect urls and commands.
+         */
+        PROVIDER
+    }
+}
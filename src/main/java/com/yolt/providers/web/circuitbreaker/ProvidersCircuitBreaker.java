@@ -1,5 +1,6 @@
 package com.yolt.providers.web.circuitbreaker;
 
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -12,4 +13,11 @@ public interface ProvidersCircuitBreaker {
     }
 
     <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback);
-}
\ No newline at end of file
+
+    /**
+     * Same as {@link #run(Supplier, Function)}, but does not block the calling thread until the result is there.
+     * Dependent stages run on the thread that completes the call, which is a bulkhead thread, or the time limiter
+     * scheduler when the call timed out.
+     */
+    <T> CompletionStage<T> runAsync(Supplier<T> toRun, Function<Throwable, T> fallback);
+}
@@ -1,5 +1,6 @@
 package com.yolt.providers.web.circuitbreaker;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.decorators.Decorators;
@@ -7,31 +8,59 @@ import io.github.resilience4j.timelimiter.TimeLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-@RequiredArgsConstructor
 @Slf4j
+@RequiredArgsConstructor
 public class Resilience4jCircuitBreaker implements ProvidersCircuitBreaker {
 
     private final CircuitBreaker circuitBreaker;
     private final TimeLimiter timeLimiter;
     private final ThreadPoolBulkhead threadPoolBulkhead;
-
-    private static final ScheduledExecutorService EXECUTOR_SERVICE = Executors.newScheduledThreadPool(1);
+    private final ScheduledExecutorService timeLimiterScheduler;
+    private final Semaphore bulkheadCallPermits;
 
     @Override
     public <T> T run(Supplier<T> toRun, Function<Throwable, T> fallback) {
-        return Decorators.ofSupplier(toRun)
-                .withThreadPoolBulkhead(threadPoolBulkhead)
-                .withTimeLimiter(timeLimiter, EXECUTOR_SERVICE)
+        return runAsync(toRun, fallback)
+                .toCompletableFuture()
+                .join();
+    }
+
+    @Override
+    public <T> CompletionStage<T> runAsync(Supplier<T> toRun, Function<Throwable, T> fallback) {
+        return Decorators.ofCompletionStage(() -> submitToBulkhead(toRun))
+                .withTimeLimiter(timeLimiter, timeLimiterScheduler)
                 .withCircuitBreaker(circuitBreaker)
                 .withFallback(fallback)
-                .get()
-                .toCompletableFuture()
-                    .join();
+                .get();
+    }
+
+    /**
+     * Every call holds one of the permits shared by all bulkheads from the moment it is submitted until it is done, so
+     * also while it waits in the queue of the bulkhead and after the time limiter already gave up on it. Without a
+     * permit the call is rejected like a full bulkhead.
+     */
+    private <T> CompletionStage<T> submitToBulkhead(Supplier<T> toRun) {
+        if (!bulkheadCallPermits.tryAcquire()) {
+            throw BulkheadFullException.createBulkheadFullException(threadPoolBulkhead);
+        }
+        try {
+            return threadPoolBulkhead.submit(() -> {
+                try {
+                    return toRun.get();
+                } finally {
+                    bulkheadCallPermits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkheadCallPermits.release();
+            throw e;
+        }
     }
 
 }
@@ -1,37 +1,174 @@
 package com.yolt.providers.web.circuitbreaker;
 
 import com.yolt.providers.web.sitedetails.sites.SiteDetailsService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
 import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
 import io.github.resilience4j.timelimiter.TimeLimiterConfig;
 import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.vavr.collection.HashMap;
 import io.vavr.collection.Map;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.ClientToken;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static com.yolt.providers.web.configuration.ApplicationConfiguration.CIRCUIT_BREAKER_TIME_LIMITER_SCHEDULER;
+
+/**
+ * Circuit breakers, time limiters and bulkheads of redirect urls that are no longer used are removed from the registries
+ * after the idle timeout, together with their meters and bulkhead threads. A bulkhead that is shared is only removed
+ * when none of the circuit breakers that share it is used anymore.
+ * <p>
+ * A cached circuit breaker is either marked as used or marked as evicted, whichever happens first, so an evicted
+ * circuit breaker is never returned again. A call that got its circuit breaker just before it became idle can still be
+ * running when its bulkhead is closed, which takes a call that runs longer than the idle timeout.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class Resilience4jCircuitBreakerFactory implements ProvidersCircuitBreakerFactory {
 
+    private static final String SHARED_TAG_VALUE = "shared";
+
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final TimeLimiterRegistry timeLimiterRegistry;
     private final ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
     private final SiteDetailsService siteDetailsService;
+    private final ScheduledExecutorService timeLimiterScheduler;
+    private final CircuitBreakerProperties.BulkheadIsolation bulkheadIsolation;
+    private final Semaphore bulkheadCallPermits;
+    private final Duration idleTimeout;
+    private final Clock clock;
+    private final ConcurrentMap<CircuitBreakerIdentity, CachedCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> siteIdFallbacks = new ConcurrentHashMap<>();
+    /**
+     * Circuit breakers are created under the read lock and evicted under the write lock, so an eviction never removes
+     * a bulkhead that a circuit breaker that is being created just got from the registry. Cached circuit breakers are
+     * returned without the lock.
+     */
+    private final ReadWriteLock evictionLock = new ReentrantReadWriteLock();
+
+    public Resilience4jCircuitBreakerFactory(CircuitBreakerRegistry circuitBreakerRegistry,
+                                             TimeLimiterRegistry timeLimiterRegistry,
+                                             ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry,
+                                             SiteDetailsService siteDetailsService,
+                                             @Qualifier(CIRCUIT_BREAKER_TIME_LIMITER_SCHEDULER) ScheduledExecutorService timeLimiterScheduler,
+                                             CircuitBreakerProperties circuitBreakerProperties,
+                                             MeterRegistry meterRegistry,
+                                             Clock clock) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.threadPoolBulkheadRegistry = threadPoolBulkheadRegistry;
+        this.siteDetailsService = siteDetailsService;
+        this.timeLimiterScheduler = timeLimiterScheduler;
+        this.bulkheadIsolation = circuitBreakerProperties.getBulkheadIsolation();
+        this.bulkheadCallPermits = new Semaphore(circuitBreakerProperties.getMaxConcurrentBulkheadCalls());
+        this.idleTimeout = circuitBreakerProperties.getIdleTimeout();
+        this.clock = clock;
+        Gauge.builder("circuitbreaker_bulkhead_available_calls", bulkheadCallPermits, Semaphore::availablePermits)
+                .description("Number of calls that can still be submitted to bulkheads before calls to any provider are rejected")
+                .register(meterRegistry);
+    }
 
+    /**
+     * The registries return the instances that were created by the first call for a provider, redirect url and command
+     * and ignore the tags of later calls, so the circuit breaker of an identity is resolved only once.
+     */
     @Override
     public ProvidersCircuitBreaker create(ClientToken clientToken, UUID siteId, String providerKey, ProvidersCircuitBreakerCommand command, UUID redirectUrlId) {
+        CircuitBreakerIdentity identity = new CircuitBreakerIdentity(providerKey, redirectUrlId, command);
+        long nowMillis = clock.millis();
+        CachedCircuitBreaker cachedCircuitBreaker = circuitBreakers.get(identity);
+        if (cachedCircuitBreaker == null || !cachedCircuitBreaker.markUsed(nowMillis)) {
+            evictionLock.readLock().lock();
+            try {
+                // Evicted circuit breakers are removed under the write lock, so the one in the map is not evicted.
+                cachedCircuitBreaker = circuitBreakers.computeIfAbsent(identity,
+                        i -> createCircuitBreaker(clientToken, siteId, providerKey, command, redirectUrlId));
+                cachedCircuitBreaker.markUsed(nowMillis);
+            } finally {
+                evictionLock.readLock().unlock();
+            }
+        }
+        return cachedCircuitBreaker.circuitBreaker;
+    }
+
+    /**
+     * Removes the circuit breakers and time limiters that were not used for the idle timeout from the registries, and
+     * the bulkheads that are no longer used by any circuit breaker. The registries remove the meters of the instances,
+     * thread pool bulkheads are closed so their threads stop. Closing waits for the threads, so it is done after the
+     * lock is released.
+     */
+    @Scheduled(fixedDelayString = "${yolt.providers.circuit-breaker.idle-eviction-interval-in-millis:300000}")
+    public void evictIdle() {
+        long idleSince = clock.millis() - idleTimeout.toMillis();
+        Set<String> bulkheadNames = new HashSet<>();
+        List<ThreadPoolBulkhead> threadPoolBulkheads = new ArrayList<>();
+        int evicted = 0;
+        evictionLock.writeLock().lock();
+        try {
+            for (var entry : circuitBreakers.entrySet()) {
+                CachedCircuitBreaker cachedCircuitBreaker = entry.getValue();
+                if (cachedCircuitBreaker.markEvictedIfIdleSince(idleSince)) {
+                    circuitBreakers.remove(entry.getKey(), cachedCircuitBreaker);
+                    circuitBreakerRegistry.remove(cachedCircuitBreaker.name);
+                    timeLimiterRegistry.remove(cachedCircuitBreaker.name);
+                    bulkheadNames.add(cachedCircuitBreaker.bulkheadName);
+                    evicted++;
+                }
+            }
+            circuitBreakers.values().forEach(cachedCircuitBreaker -> bulkheadNames.remove(cachedCircuitBreaker.bulkheadName));
+            for (String bulkheadName : bulkheadNames) {
+                threadPoolBulkheadRegistry.remove(bulkheadName).ifPresent(threadPoolBulkheads::add);
+            }
+        } finally {
+            evictionLock.writeLock().unlock();
+        }
+        threadPoolBulkheads.forEach(this::close);
+        if (evicted > 0) {
+            log.info("Evicted {} idle circuit breakers and {} bulkheads", evicted, bulkheadNames.size());
+        }
+    }
+
+    private void close(ThreadPoolBulkhead threadPoolBulkhead) {
+        try {
+            threadPoolBulkhead.close();
+        } catch (Exception e) {
+            log.warn("Failed to close idle bulkhead {}", threadPoolBulkhead.getName(), e);
+        }
+    }
+
+    private CachedCircuitBreaker createCircuitBreaker(ClientToken clientToken, UUID siteId, String providerKey, ProvidersCircuitBreakerCommand command, UUID redirectUrlId) {
         String providerName = providerKey.replace("_", "");
         String name = providerName + "-" + redirectUrlId.toString() + "-" + command.getCommand();
         String serviceType = command.getServiceType();
         String config = providerName + "-" + command.getCommand();
-        var siteIdWithFallback = siteId == null ? siteDetailsService.getMatchingSiteIdForProviderKey(providerKey)
-                .orElse("unknown") : siteId.toString();
+        var siteIdWithFallback = siteId == null ? getSiteIdFallback(providerKey) : siteId.toString();
         // If the client is non-psd2 licensed, it is leveraging the authentication means from the yolt client group.
         // We want to group all those clients in 1 circuit breaker, since the same authentication means are used.
         // psd2 licensed clients have their own authentication means and also their own circuit breaker.
@@ -42,10 +179,57 @@ public class Resilience4jCircuitBreakerFactory implements ProvidersCircuitBreake
                     "circuitBreakingGroupId", circuitBreakingGroupId,
                 "siteId", siteIdWithFallback);
 
-        return new Resilience4jCircuitBreaker(
-                circuitBreakerRegistry.circuitBreaker(name, () -> getCircuitBreakerConfig(config), tags),
-                timeLimiterRegistry.timeLimiter(name, () -> getTimeLimiterConfig(config), tags),
-                threadPoolBulkheadRegistry.bulkhead(name, () -> getThreadPoolBulkheadConfig(config), tags));
+        String bulkheadName = getBulkheadName(name, providerName, command);
+        String bulkheadConfig = bulkheadIsolation == CircuitBreakerProperties.BulkheadIsolation.PROVIDER ? providerName : config;
+        Map<String, String> bulkheadTags = getBulkheadTags(providerKey, command, tags);
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, () -> getCircuitBreakerConfig(config), tags);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(name, () -> getTimeLimiterConfig(config), tags);
+        return new CachedCircuitBreaker(new Resilience4jCircuitBreaker(
+                circuitBreaker,
+                timeLimiter,
+                threadPoolBulkheadRegistry.bulkhead(bulkheadName, () -> getThreadPoolBulkheadConfig(bulkheadConfig), bulkheadTags),
+                timeLimiterScheduler,
+                bulkheadCallPermits), name, bulkheadName);
+    }
+
+    private String getSiteIdFallback(String providerKey) {
+        return siteIdFallbacks.computeIfAbsent(providerKey, key -> siteDetailsService.getMatchingSiteIdForProviderKey(key)
+                .orElse("unknown"));
+    }
+
+    private String getBulkheadName(String name, String providerName, ProvidersCircuitBreakerCommand command) {
+        switch (bulkheadIsolation) {
+            case PROVIDER:
+                return providerName;
+            case PROVIDER_AND_COMMAND:
+                return providerName + "-" + command.getCommand();
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * Shared bulkheads are used by several redirect urls (and client groups), so the tags that differ per redirect url
+     * are replaced. The tag keys stay the same, as all meters with the same name need the same set of tag keys.
+     */
+    private Map<String, String> getBulkheadTags(String providerKey, ProvidersCircuitBreakerCommand command, Map<String, String> tags) {
+        switch (bulkheadIsolation) {
+            case PROVIDER:
+                return HashMap.of(
+                        "provider", providerKey,
+                        "serviceType", SHARED_TAG_VALUE,
+                        "circuitBreakingGroupId", SHARED_TAG_VALUE,
+                        "siteId", SHARED_TAG_VALUE);
+            case PROVIDER_AND_COMMAND:
+                return HashMap.of(
+                        "provider", providerKey,
+                        "serviceType", command.getServiceType(),
+                        "circuitBreakingGroupId", SHARED_TAG_VALUE,
+                        "siteId", SHARED_TAG_VALUE);
+            default:
+                return tags;
+        }
     }
 
     private ThreadPoolBulkheadConfig getThreadPoolBulkheadConfig(String config) {
@@ -56,7 +240,46 @@ public class Resilience4jCircuitBreakerFactory implements ProvidersCircuitBreake
         return timeLimiterRegistry.getConfiguration(config).orElse(timeLimiterRegistry.getDefaultConfig());
     }
 
+    /**
+     * A full bulkhead says nothing about the bank, and a bulkhead or the permits can be used up by other redirect urls,
+     * so it is ignored by every circuit breaker. The named configs do not inherit the ignored exceptions of the default
+     * config, so it is added here instead of in the configs.
+     */
     private CircuitBreakerConfig getCircuitBreakerConfig(String configName) {
-        return circuitBreakerRegistry.getConfiguration(configName).orElse(circuitBreakerRegistry.getDefaultConfig());
+        CircuitBreakerConfig circuitBreakerConfig = circuitBreakerRegistry.getConfiguration(configName).orElse(circuitBreakerRegistry.getDefaultConfig());
+        return CircuitBreakerConfig.from(circuitBreakerConfig)
+                .ignoreException(circuitBreakerConfig.getIgnoreExceptionPredicate().or(BulkheadFullException.class::isInstance))
+                .build();
+    }
+
+    @Value
+    private static class CircuitBreakerIdentity {
+
+        String providerKey;
+        UUID redirectUrlId;
+        ProvidersCircuitBreakerCommand command;
+    }
+
+    @RequiredArgsConstructor
+    private static class CachedCircuitBreaker {
+
+        private static final long EVICTED = Long.MIN_VALUE;
+
+        private final ProvidersCircuitBreaker circuitBreaker;
+        private final String name;
+        private final String bulkheadName;
+        private final AtomicLong lastUsedMillis = new AtomicLong();
+
+        /**
+         * @return false if the circuit breaker was already evicted, it must not be used anymore
+         */
+        boolean markUsed(long nowMillis) {
+            return lastUsedMillis.getAndUpdate(lastUsed -> lastUsed == EVICTED ? EVICTED : Math.max(lastUsed, nowMillis)) != EVICTED;
+        }
+
+        boolean markEvictedIfIdleSince(long idleSinceMillis) {
+            long lastUsed = lastUsedMillis.get();
+            return lastUsed != EVICTED && lastUsed < idleSinceMillis && lastUsedMillis.compareAndSet(lastUsed, EVICTED);
+        }
     }
 }
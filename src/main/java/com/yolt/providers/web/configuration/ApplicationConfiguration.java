@@ -1,9 +1,13 @@
 package com.yolt.providers.web.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yolt.providers.web.circuitbreaker.CircuitBreakerProperties;
 import com.yolt.providers.web.cryptography.YoltSecurityProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +23,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.servlet.HandlerMapping;
 
@@ -29,6 +34,9 @@ import java.security.Security;
 import java.time.Clock;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @EnableAsync
@@ -39,9 +47,13 @@ public class ApplicationConfiguration {
     public static final String ASYNC_PROVIDER_FETCH_DATA_EXECUTOR = "asyncProviderFetchDataExecutor";
     public static final String ASYNC_PROVIDER_FETCH_EXTERNAL_USER_IDS_EXECUTOR = "asyncProviderFetchExternalUserIdsExecutor";
     public static final String ASYNC_PROVIDER_CONSENT_TESTER_EXECUTOR = "asyncProviderConsentTesterExecutor";
+    public static final String RAW_DATA_PUBLISHER_EXECUTOR = "rawDataPublisherExecutor";
+    public static final String FETCH_DATA_RESULT_PUBLISHER_EXECUTOR = "fetchDataResultPublisherExecutor";
+    public static final String CIRCUIT_BREAKER_TIME_LIMITER_SCHEDULER = "circuitBreakerTimeLimiterScheduler";
     public static final String OBJECT_MAPPER = "providersObjectMapper";
 
     private static final int DEFAULT_THREAD_POOL_SIZE = 200;
+    private static final int FETCH_DATA_RESULT_PUBLISHER_QUEUE_CAPACITY = 1000;
 
     public static void ensureSecurityProvidersLoaded() {
         // We need to insert the YoltSecurityProvider before SunRSA, but after the generic Sun JCE provider. See YoltSecurityProvider.
@@ -107,6 +119,60 @@ public class ApplicationConfiguration {
                 .build();
     }
 
+    /**
+     * Publishes the results of the asynchronous fetch data calls, so the bulkhead and time limiter threads that complete
+     * the calls are not held by the kafka sends and the upload to accounts-and-transactions. The results are never
+     * published on the completing thread: on a timeout that is a thread of the scheduler shared by all time limiters.
+     * When all threads are busy and the queue is full, the result is rejected, counted and logged.
+     */
+    @Bean(FETCH_DATA_RESULT_PUBLISHER_EXECUTOR)
+    public ThreadPoolTaskExecutor fetchDataResultPublisherExecutor(TaskExecutorBuilder builder,
+                                                                   MeterRegistry meterRegistry) {
+        Counter rejectedFetchDataResults = Counter.builder("fetch_data_results_dropped")
+                .description("Fetch data results that were not published because the queue of the publisher was full")
+                .register(meterRegistry);
+        ThreadPoolTaskExecutor executor = builder
+                .corePoolSize(defaultThreadPoolSize)
+                .maxPoolSize(defaultThreadPoolSize)
+                .allowCoreThreadTimeOut(true)
+                .queueCapacity(FETCH_DATA_RESULT_PUBLISHER_QUEUE_CAPACITY)
+                .threadNamePrefix(FETCH_DATA_RESULT_PUBLISHER_EXECUTOR + "-")
+                .build();
+        executor.setRejectedExecutionHandler((task, threadPoolExecutor) -> {
+            rejectedFetchDataResults.increment();
+            throw new RejectedExecutionException("The queue of " + FETCH_DATA_RESULT_PUBLISHER_EXECUTOR + " is full");
+        });
+        return executor;
+    }
+
+    /**
+     * Raw data is published on a bounded pool of its own. When kafka cannot keep up, the pool rejects raw data and the
+     * {@link com.yolt.providers.web.intercept.RawDataProducer} drops and counts it instead of piling it up on the heap.
+     */
+    @Bean(RAW_DATA_PUBLISHER_EXECUTOR)
+    public ThreadPoolTaskExecutor rawDataPublisherExecutor(TaskExecutorBuilder builder,
+                                                           RawDataProperties rawDataProperties) {
+        return builder
+                .corePoolSize(rawDataProperties.getPublisherThreads())
+                .maxPoolSize(rawDataProperties.getPublisherThreads())
+                .queueCapacity(rawDataProperties.getPublisherQueueCapacity())
+                .threadNamePrefix(RAW_DATA_PUBLISHER_EXECUTOR + "-")
+                .build();
+    }
+
+    /**
+     * Schedules the timeouts of all circuit breakers. On a timeout the fallback of the call runs on this scheduler.
+     */
+    @Bean(CIRCUIT_BREAKER_TIME_LIMITER_SCHEDULER)
+    public ScheduledExecutorService circuitBreakerTimeLimiterScheduler(final CircuitBreakerProperties circuitBreakerProperties,
+                                                                       final MeterRegistry meterRegistry) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(circuitBreakerProperties.getTimeLimiterSchedulerPoolSize(),
+                new CustomizableThreadFactory("circuit-breaker-time-limiter-"));
+        // Almost every call completes before its timeout, the cancelled timeout should not stay queued until it would have expired.
+        scheduler.setRemoveOnCancelPolicy(true);
+        return ExecutorServiceMetrics.monitor(meterRegistry, scheduler, CIRCUIT_BREAKER_TIME_LIMITER_SCHEDULER);
+    }
+
     @Bean
     public Clock clock() {
         return Clock.systemUTC();
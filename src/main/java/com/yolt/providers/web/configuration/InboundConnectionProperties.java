@@ -0,0 +1,23 @@
+package com.yolt.providers.web.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keep-alive of the connections of callers (site-management, PIS, client gateway). Without keep-alive every request
+ * opens a new connection. With keep-alive a connection is closed after maxKeepAliveRequests requests or once it is
+ * older than connectionMaxAge, so callers reconnect and their connections are spread over the pods again.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.inbound-connection")
+public class InboundConnectionProperties {
+
+    private boolean keepAliveEnabled;
+    private int maxKeepAliveRequests = 100;
+    private Duration keepAliveTimeout = Duration.ofSeconds(20);
+    private Duration connectionMaxAge = Duration.ofMinutes(5);
+}
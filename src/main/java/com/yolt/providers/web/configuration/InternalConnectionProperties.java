@@ -0,0 +1,27 @@
+package com.yolt.providers.web.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Connection pool that is shared by the rest templates of the internal services (accounts-and-transactions,
+ * site-management). Every destination gets at most maxPerRoute connections, connections are kept alive for keepAlive
+ * unless the service asks for less and are closed after being idle for idleConnectionTimeout.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.internal-connection")
+public class InternalConnectionProperties {
+
+    private int maxTotal = 100;
+    private int maxPerRoute = 50;
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+    private Duration connectTimeout = Duration.ofSeconds(2);
+    private Duration socketTimeout = Duration.ofSeconds(60);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleConnectionTimeout = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
@@ -0,0 +1,30 @@
+package com.yolt.providers.web.configuration;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up the partitions of a topic, for listeners that assign all partitions to themselves instead of joining a
+ * consumer group: {@code partitions = "#{@kafkaTopicPartitionFinder.partitions('topic')}"}.
+ * <p>
+ * The partitions are looked up once, when the listener is created. Partitions that are added to the topic later are
+ * only consumed after a restart.
+ */
+@Component
+@RequiredArgsConstructor
+public class KafkaTopicPartitionFinder {
+
+    private final ConsumerFactory<?, ?> consumerFactory;
+
+    public String[] partitions(final String topic) {
+        try (Consumer<?, ?> consumer = consumerFactory.createConsumer()) {
+            return consumer.partitionsFor(topic).stream()
+                    .map(PartitionInfo::partition)
+                    .map(String::valueOf)
+                    .toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.yolt.providers.web.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Raw data of bank responses is captured up to a maximum size and published to kafka on a bounded pool. Raw data that
+ * does not fit in the queue of the pool, by number or by bytes, is dropped. The producer of raw data batches and
+ * compresses records.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.raw-data")
+public class RawDataProperties {
+
+    private int maxCaptureSizeInBytes = 5 * 1024 * 1024;
+    private int publisherThreads = 4;
+    private int publisherQueueCapacity = 1000;
+    private int publisherQueueCapacityInBytes = 64 * 1024 * 1024;
+    private String producerCompressionType = "lz4";
+    private int producerLingerInMillis = 20;
+    private int producerBatchSizeInBytes = 256 * 1024;
+}
@@ -0,0 +1,16 @@
+package com.yolt.providers.web.cryptography;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.vault.private-key-cache")
+public class PrivateKeyCacheProperties {
+
+    private long maximumSize = 10_000;
+    private Duration expireAfterWrite = Duration.ofHours(1);
+}
@@ -1,5 +1,7 @@
 package com.yolt.providers.web.cryptography;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
 import nl.ing.lovebird.clienttokens.ClientToken;
@@ -24,6 +26,11 @@ import java.util.function.Supplier;
 /**
  * This service is used to retrieve private keys for setting up mutual TLS.
  * It uses the lovebird-commons code for authenticating to vault.
+ * <p>
+ * Parsed private keys are cached per key type and kid, together with the client (group) that owns them. A rotated key
+ * always gets a new kid, so a cached key is never served for a rotated kid. The keys of a client (group) are invalidated
+ * when its authentication means are updated or deleted, the expiry bounds how long a key that got removed from Vault
+ * otherwise stays usable. The ownership check is done on every lookup, also when the key is cached.
  */
 @Service
 @Slf4j
@@ -42,17 +49,23 @@ public class VaultService implements KeyService {
     private final String namespace;
     private final String environment;
     private final String applicationName;
+    private final Cache<PrivateKeyReference, VaultPrivateKey> keyCache;
 
     public VaultService(Supplier<VaultTemplate> vaultTemplateSupplier,
                         @Value("${cluster.cloudhsm.location}") String cloudHSMLocation,
                         @Value("${yolt.deployment.namespace}") String namespace,
                         @Value("${yolt.deployment.environment}") String environment,
-                        @Value("${spring.application.name}") String applicationName) {
+                        @Value("${spring.application.name}") String applicationName,
+                        PrivateKeyCacheProperties privateKeyCacheProperties) {
         this.vaultTemplateSupplier = vaultTemplateSupplier;
         this.cloudHSMLocation = cloudHSMLocation;
         this.namespace = namespace;
         this.environment = environment;
         this.applicationName = applicationName;
+        this.keyCache = Caffeine.newBuilder()
+                .maximumSize(privateKeyCacheProperties.getMaximumSize())
+                .expireAfterWrite(privateKeyCacheProperties.getExpireAfterWrite())
+                .build();
     }
 
     /**
@@ -85,10 +98,40 @@ public class VaultService implements KeyService {
         return doGetPrivateKey(kid, "signing", clientIdClaim, clientToken.getClientGroupIdClaim());
     }
 
+    /**
+     * Removes the cached private keys of the client, so the next lookup reads them from Vault again.
+     */
+    public void invalidateClientPrivateKeys(UUID clientId) {
+        String owner = clientId.toString();
+        keyCache.asMap().values().removeIf(key -> owner.equals(key.getClientId()));
+    }
+
+    /**
+     * Removes the cached private keys of the client group, including the ones of its clients.
+     */
+    public void invalidateClientGroupPrivateKeys(UUID clientGroupId) {
+        String owner = clientGroupId.toString();
+        keyCache.asMap().values().removeIf(key -> owner.equals(key.getClientGroupId()));
+    }
+
     private PrivateKey doGetPrivateKey(UUID kid, String keytype, UUID clientIdClaim, UUID clientGroupIdClaim) throws KeyNotFoundException {
         String clientId = clientIdClaim != null ? clientIdClaim.toString() : null;
         String clientGroupId = clientGroupIdClaim.toString();
 
+        VaultPrivateKey key;
+        try {
+            // Concurrent lookups of a key that is not cached wait for a single read from Vault.
+            key = keyCache.get(new PrivateKeyReference(keytype, kid), reference -> readPrivateKey(reference, clientId, clientGroupId));
+        } catch (UncheckedKeyNotFoundException e) {
+            throw e.getCause();
+        }
+        verifyOwnership(kid, keytype, clientId, clientGroupId, key.getClientId(), key.getClientGroupId());
+        return key.getPrivateKey();
+    }
+
+    private VaultPrivateKey readPrivateKey(PrivateKeyReference reference, String clientId, String clientGroupId) {
+        String keytype = reference.getKeyType();
+        UUID kid = reference.getKid();
         String secretsPath = getSecretsBasePath(keytype, kid);
 
         VaultResponse readSecrets = vaultTemplateSupplier.get().read(secretsPath);
@@ -96,38 +139,41 @@ public class VaultService implements KeyService {
             AuditLogger.logFailure(String.format("Error retrieving %s private key with kid: %s from Vault.", keytype, kid), null);
             String error = String.format("Key not found for [client-id: %s or client-group-id: %s] and kid: %s. Secret map didn't exist.",
                     clientId, clientGroupId, kid);
-            throw new KeyNotFoundException(error);
+            throw new UncheckedKeyNotFoundException(new KeyNotFoundException(error));
         }
 
         Map<String, String> data = (Map<String, String>) readSecrets.getData().get("data");
 
-        if ((!Objects.equals(clientId, data.get("client-id")) || clientId == null)
-                && !clientGroupId.equals(data.get("client-group-id"))) {
-            AuditLogger.logFailure(String.format(
-                    "%s private key with kid: %s does not match client-id: %s or client-group-id: %s",
-                    keytype, kid, clientId, clientGroupId
-            ), null);
-            throw new KeyNotFoundException(String.format(
-                    "Key not found for [client-id: %s or client-group-id: %s] and kid: %s. " +
-                            "client-id does not match (actual id: %s). " +
-                            "client-group-id does not match (actual id: %s).",
-                    clientId, clientGroupId, kid, data.get("client-id"), data.get("client-group-id")
-            ));
-        }
-
         try {
             KeyFactory keyFactory = KeyFactory.getInstance(data.get("key-algorithm"));
             PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(data.get("private-key"))));
 
             AuditLogger.logSuccess(String.format("Successfully retrieved %s private key with kid: %s from Vault.", keytype, kid), null);
 
-            return privateKey;
+            return new VaultPrivateKey(privateKey, data.get("client-id"), data.get("client-group-id"));
         } catch (InvalidKeySpecException | NoSuchAlgorithmException ex) {
             AuditLogger.logFailure(String.format("Error deserializing private key with kid: %s", kid), null);
             log.error("Failed to deserialize private key from Vault.", ex);
-            throw new KeyNotFoundException(String.format(
+            throw new UncheckedKeyNotFoundException(new KeyNotFoundException(String.format(
                     "Key not found for [client-id: %s or client-group-id: %s] and kid: %s. Private key couldn't be deserialized",
                     clientId, clientGroupId, kid
+            )));
+        }
+    }
+
+    private static void verifyOwnership(UUID kid, String keytype, String clientId, String clientGroupId,
+                                        String ownerClientId, String ownerClientGroupId) throws KeyNotFoundException {
+        if ((!Objects.equals(clientId, ownerClientId) || clientId == null)
+                && !clientGroupId.equals(ownerClientGroupId)) {
+            AuditLogger.logFailure(String.format(
+                    "%s private key with kid: %s does not match client-id: %s or client-group-id: %s",
+                    keytype, kid, clientId, clientGroupId
+            ), null);
+            throw new KeyNotFoundException(String.format(
+                    "Key not found for [client-id: %s or client-group-id: %s] and kid: %s. " +
+                            "client-id does not match (actual id: %s). " +
+                            "client-group-id does not match (actual id: %s).",
+                    clientId, clientGroupId, kid, ownerClientId, ownerClientGroupId
             ));
         }
     }
@@ -143,4 +189,32 @@ public class VaultService implements KeyService {
     private String getSecretsBasePath(String keyType, UUID keyId) {
         return String.format("%s/k8s/pods/%s/kv/%s/%s/data/%s", environment, namespace, KEY_VALUE_STORE_NAME, keyType, keyId.toString());
     }
+
+    @lombok.Value
+    private static class PrivateKeyReference {
+        String keyType;
+        UUID kid;
+    }
+
+    @lombok.Value
+    private static class VaultPrivateKey {
+        PrivateKey privateKey;
+        String clientId;
+        String clientGroupId;
+    }
+
+    /**
+     * Carries a {@link KeyNotFoundException} out of the cache loader, which can not throw checked exceptions.
+     */
+    private static class UncheckedKeyNotFoundException extends RuntimeException {
+
+        UncheckedKeyNotFoundException(KeyNotFoundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized KeyNotFoundException getCause() {
+            return (KeyNotFoundException) super.getCause();
+        }
+    }
 }
@@ -19,16 +19,24 @@ import org.jose4j.lang.StringUtil;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.security.*;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.SignatureException;
+import java.util.Arrays;
 import java.util.UUID;
 
 @RequiredArgsConstructor
 @Slf4j
 public class JcaSigner implements Signer {
 
+    private static final int MAX_AUDITED_PAYLOAD_BYTES = 4096;
+
     private final Base64Url base64Url = new Base64Url();
     private final AbstractClientToken clientToken;
     private final KeyService keyService;
+    private final SignaturePool signaturePool;
+    private String auditIdentity;
 
     @Override
     public JcaSigningResult sign(JsonWebSignature jws, UUID privateKid, SignatureAlgorithm signatureAlgorithm) {
@@ -54,37 +62,48 @@ public class JcaSigner implements Signer {
     }
 
     private String sign(UUID privateKid, SignatureAlgorithm algorithm, boolean urlEncoding, byte[] payload) throws KeyNotFoundException {
-        String clientId = clientToken instanceof ClientToken ? ((ClientToken) clientToken).getClientIdClaim().toString() : "";
-        String clientGroupId = clientToken.getClientGroupIdClaim().toString();
         try {
             PrivateKey privateKey = getPrivateSigningKey(privateKid);
-            Signature signature = Signature.getInstance(algorithm.getJvmAlgorithm());
-            signature.initSign(privateKey);
-            signature.update(payload);
-
-            String encodedSignature;
-            String message;
-            if (urlEncoding) {
-                encodedSignature = base64Url.base64UrlEncode(signature.sign());
-                message = String.format("Successfully signed payload for [client: %s or client-group: %s], kid: %s and algorithm: %s, resulting url encoded signature: %s",
-                        clientId, clientGroupId, privateKid, algorithm.getJvmAlgorithm(), encodedSignature);
-            } else {
-                encodedSignature = Base64.toBase64String(signature.sign());
-                message = String.format("Successfully signed payload for [client: %s or client-group: %s], kid: %s and algorithm: %s, resulting encoded signature: %s",
-                        clientId, clientGroupId, privateKid, algorithm.getJvmAlgorithm(), encodedSignature);
-            }
-
-            AuditLogger.logSuccess(message, payload);
+            byte[] signature = signaturePool.sign(algorithm.getJvmAlgorithm(), privateKey, payload);
+
+            String encodedSignature = urlEncoding ? base64Url.base64UrlEncode(signature) : Base64.toBase64String(signature);
+            AuditLogger.logSuccess("Successfully signed payload for " + getAuditIdentity() + ", kid: " + privateKid
+                            + " and algorithm: " + algorithm.getJvmAlgorithm()
+                            + (urlEncoding ? ", resulting url encoded signature: " : ", resulting encoded signature: ") + encodedSignature
+                            + getAuditTruncation(payload),
+                    getAuditPayload(payload));
             return encodedSignature;
         } catch (NoSuchAlgorithmException | InvalidKeyException | SignatureException ex) {
-            String message = String.format("Failed creating signature for payload for [client: %s or client-group: %s], kid: %s and algorithm: %s",
-                    clientId, clientGroupId, privateKid, algorithm.getJvmAlgorithm());
-            AuditLogger.logError(message, payload, ex);
+            String message = "Failed creating signature for payload for " + getAuditIdentity() + ", kid: " + privateKid
+                    + " and algorithm: " + algorithm.getJvmAlgorithm();
+            AuditLogger.logError(message + getAuditTruncation(payload), getAuditPayload(payload), ex);
 
             throw new SigningFailedException(message, ex);
         }
     }
 
+    private String getAuditIdentity() {
+        if (auditIdentity == null) {
+            String clientId = clientToken instanceof ClientToken ? ((ClientToken) clientToken).getClientIdClaim().toString() : "";
+            auditIdentity = "[client: " + clientId + " or client-group: " + clientToken.getClientGroupIdClaim() + "]";
+        }
+        return auditIdentity;
+    }
+
+    /**
+     * Large payloads (documents, batch payments) are cut off in the audit log, only the beginning of them is needed
+     * to identify what has been signed.
+     */
+    private static byte[] getAuditPayload(byte[] payload) {
+        return payload.length > MAX_AUDITED_PAYLOAD_BYTES ? Arrays.copyOf(payload, MAX_AUDITED_PAYLOAD_BYTES) : payload;
+    }
+
+    private static String getAuditTruncation(byte[] payload) {
+        return payload.length > MAX_AUDITED_PAYLOAD_BYTES
+                ? ", payload truncated to " + MAX_AUDITED_PAYLOAD_BYTES + " of " + payload.length + " bytes"
+                : "";
+    }
+
     private PrivateKey getPrivateSigningKey(UUID privateKid) throws KeyNotFoundException {
         if (clientToken instanceof ClientToken) {
             return keyService.getPrivateSigningKey((ClientToken) clientToken, privateKid);
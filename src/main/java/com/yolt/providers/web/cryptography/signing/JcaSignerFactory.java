@@ -6,17 +6,22 @@ import nl.ing.lovebird.clienttokens.ClientGroupToken;
 import nl.ing.lovebird.clienttokens.ClientToken;
 import org.springframework.stereotype.Service;
 
+/**
+ * Signers are created per request, as they carry the token of the caller that is needed for the ownership check of
+ * the signing key. The {@link java.security.Signature} instances they use are pooled and shared by all signers.
+ */
 @Service
 @RequiredArgsConstructor
 public class JcaSignerFactory {
 
     private final KeyService keyservice;
+    private final SignaturePool signaturePool = new SignaturePool();
 
     public JcaSigner getForClientToken(ClientToken clientToken) {
-        return new JcaSigner(clientToken, keyservice);
+        return new JcaSigner(clientToken, keyservice, signaturePool);
     }
 
     public JcaSigner getForClientGroupToken(ClientGroupToken clientGroupToken) {
-        return new JcaSigner(clientGroupToken, keyservice);
+        return new JcaSigner(clientGroupToken, keyservice, signaturePool);
     }
 }
@@ -0,0 +1,49 @@
+package com.yolt.providers.web.cryptography.signing;
+
+import lombok.Value;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pools {@link Signature} instances, as {@link Signature#getInstance(String)} has to go through the provider list on
+ * every call.
+ * <p>
+ * A {@link Signature} sticks to the provider it selected during its first {@link Signature#initSign(PrivateKey)}. Keys
+ * of the HSM and keys from Vault are served by different providers, so instances are pooled per algorithm and key
+ * implementation. A pooled instance is always initialized with the key of the caller before it is used.
+ */
+class SignaturePool {
+
+    private static final int MAX_POOLED_PER_ALGORITHM = 64;
+
+    private final ConcurrentMap<PoolKey, BlockingQueue<Signature>> pools = new ConcurrentHashMap<>();
+
+    byte[] sign(String algorithm, PrivateKey privateKey, byte[] payload) throws NoSuchAlgorithmException, InvalidKeyException, SignatureException {
+        BlockingQueue<Signature> pool = pools.computeIfAbsent(new PoolKey(algorithm, privateKey.getClass()),
+                key -> new ArrayBlockingQueue<>(MAX_POOLED_PER_ALGORITHM));
+        Signature signature = pool.poll();
+        if (signature == null) {
+            signature = Signature.getInstance(algorithm);
+        }
+        signature.initSign(privateKey);
+        signature.update(payload);
+        byte[] result = signature.sign();
+        // Only returned when signing succeeded, an instance in an unknown state is left to the garbage collector.
+        pool.offer(signature);
+        return result;
+    }
+
+    @Value
+    private static class PoolKey {
+        String algorithm;
+        Class<?> keyType;
+    }
+}
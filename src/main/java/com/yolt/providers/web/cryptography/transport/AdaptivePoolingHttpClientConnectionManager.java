@@ -0,0 +1,93 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool that keeps track of how long requests wait for a connection of a route, so the limit of every route
+ * can be adjusted to the traffic to it. A busy bank gets more connections, a route that is not used gives them back.
+ */
+@Slf4j
+class AdaptivePoolingHttpClientConnectionManager extends PoolingHttpClientConnectionManager {
+
+    /**
+     * Lease waits per route since the previous adjustment.
+     */
+    private final Map<HttpRoute, LeaseWaits> leaseWaits = new ConcurrentHashMap<>();
+
+    AdaptivePoolingHttpClientConnectionManager(final Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        super(socketFactoryRegistry);
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        ConnectionRequest connectionRequest = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit timeUnit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long startNanos = System.nanoTime();
+                try {
+                    return connectionRequest.get(timeout, timeUnit);
+                } finally {
+                    leaseWaits.computeIfAbsent(route, r -> new LeaseWaits()).record(System.nanoTime() - startNanos);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return connectionRequest.cancel();
+            }
+        };
+    }
+
+    /**
+     * Doubles the limit of routes on which requests waited longer than the threshold on average and halves the limit of
+     * routes that had no requests and no leased connections, within the given bounds.
+     */
+    void adjustMaxPerRoute(final int min, final int max, final long leaseWaitThresholdInMillis) {
+        for (HttpRoute route : getRoutes()) {
+            LeaseWaits waits = leaseWaits.remove(route);
+            int current = getMaxPerRoute(route);
+            int adjusted = current;
+            if (waits != null && waits.getAverageMillis() >= leaseWaitThresholdInMillis) {
+                adjusted = current * 2;
+            } else if (waits == null && getStats(route).getLeased() == 0) {
+                adjusted = current / 2;
+            }
+            adjusted = Math.max(min, Math.min(max, adjusted));
+            if (adjusted != current) {
+                setMaxPerRoute(route, adjusted);
+                log.debug("Adjusted the connection limit of route {} from {} to {}", route, current, adjusted);
+            }
+        }
+    }
+
+    private static class LeaseWaits {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(final long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        long getAverageMillis() {
+            long leases = count.sum();
+            return leases == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / leases);
+        }
+    }
+}
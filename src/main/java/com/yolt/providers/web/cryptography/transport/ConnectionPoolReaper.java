@@ -0,0 +1,119 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import com.yolt.providers.web.service.configuration.ProviderConnectionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Keeps track of the connection pools of all {@link MutualTLSRestTemplateManager}s.
+ * <p>
+ * Nothing else closes connections that a bank closed on its side or that have not been used for a while, so the
+ * reaper periodically closes expired and idle connections of every pool, and adjusts the route limits of adaptive
+ * pools. Pools of managers that are no longer used are retired: they are shut down after a grace period, so requests
+ * that are still running with the rest template of that manager can finish.
+ */
+@Slf4j
+@Component
+public class ConnectionPoolReaper {
+
+    private final Map<PoolingHttpClientConnectionManager, String> pools = new ConcurrentHashMap<>();
+    /**
+     * The same pools grouped by provider, so the gauges of a provider only look at the pools of that provider.
+     */
+    private final Map<String, Set<PoolingHttpClientConnectionManager>> poolsByProvider = new ConcurrentHashMap<>();
+    private final Map<PoolingHttpClientConnectionManager, Long> retiredPools = new ConcurrentHashMap<>();
+    private final Set<String> providersWithGauges = ConcurrentHashMap.newKeySet();
+    private final ProviderConnectionProperties providerConnectionProperties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    public ConnectionPoolReaper(final ProviderConnectionProperties providerConnectionProperties,
+                                final MeterRegistry meterRegistry,
+                                final Clock clock) {
+        this.providerConnectionProperties = providerConnectionProperties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        Gauge.builder("provider_connection_pools_retired", retiredPools, Map::size)
+                .description("Number of connection pools of closed RestTemplateManagers that are not shut down yet")
+                .register(meterRegistry);
+    }
+
+    void register(final String providerKey, final PoolingHttpClientConnectionManager pool) {
+        pools.put(pool, providerKey);
+        Set<PoolingHttpClientConnectionManager> providerPools = poolsByProvider.computeIfAbsent(providerKey, key -> ConcurrentHashMap.newKeySet());
+        providerPools.add(pool);
+        if (providersWithGauges.add(providerKey)) {
+            registerGauge("provider_connection_pool_leased", "Connections in use", providerKey, providerPools, PoolStats::getLeased);
+            registerGauge("provider_connection_pool_available", "Idle connections kept alive", providerKey, providerPools, PoolStats::getAvailable);
+            registerGauge("provider_connection_pool_pending", "Requests waiting for a connection", providerKey, providerPools, PoolStats::getPending);
+            Gauge.builder("provider_connection_pools", providerPools, Set::size)
+                    .description("Number of connection pools")
+                    .tag("provider", providerKey)
+                    .register(meterRegistry);
+        }
+    }
+
+    void retire(final Collection<PoolingHttpClientConnectionManager> poolsToRetire) {
+        long now = clock.millis();
+        poolsToRetire.forEach(pool -> retiredPools.putIfAbsent(pool, now));
+    }
+
+    @Scheduled(fixedDelayString = "${yolt.providers.connection.evictionIntervalInMillis:30000}")
+    public void reap() {
+        ProviderConnectionProperties.AdaptiveMaxPerRoute adaptiveMaxPerRoute = providerConnectionProperties.getAdaptiveMaxPerRoute();
+        pools.keySet().forEach(pool -> {
+            // Adjusted before idle connections are closed, otherwise routes that are no longer used are gone.
+            if (pool instanceof AdaptivePoolingHttpClientConnectionManager) {
+                ((AdaptivePoolingHttpClientConnectionManager) pool).adjustMaxPerRoute(
+                        adaptiveMaxPerRoute.getMin(), adaptiveMaxPerRoute.getMax(), adaptiveMaxPerRoute.getLeaseWaitThresholdInMillis());
+            }
+            pool.closeExpiredConnections();
+            pool.closeIdleConnections(providerConnectionProperties.getIdleConnectionTimeoutInMillis(), TimeUnit.MILLISECONDS);
+        });
+
+        long now = clock.millis();
+        retiredPools.forEach((pool, retiredAt) -> {
+            if (now - retiredAt >= providerConnectionProperties.getRetiredPoolGracePeriodInMillis()) {
+                retiredPools.remove(pool);
+                String providerKey = pools.remove(pool);
+                if (providerKey != null) {
+                    poolsByProvider.get(providerKey).remove(pool);
+                }
+                pool.shutdown();
+                log.info("Shut down a retired connection pool of provider {}", providerKey);
+            }
+        });
+    }
+
+    private void registerGauge(final String name,
+                               final String description,
+                               final String providerKey,
+                               final Set<PoolingHttpClientConnectionManager> providerPools,
+                               final ToIntFunction<PoolStats> stat) {
+        Gauge.builder(name, providerPools, pools -> sumPoolStats(pools, stat))
+                .description(description)
+                .tag("provider", providerKey)
+                .register(meterRegistry);
+    }
+
+    private static double sumPoolStats(final Set<PoolingHttpClientConnectionManager> providerPools, final ToIntFunction<PoolStats> stat) {
+        int sum = 0;
+        for (PoolingHttpClientConnectionManager pool : providerPools) {
+            sum += stat.applyAsInt(pool.getTotalStats());
+        }
+        return sum;
+    }
+}
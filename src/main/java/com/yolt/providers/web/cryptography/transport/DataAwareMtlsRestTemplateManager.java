@@ -23,8 +23,8 @@ public class DataAwareMtlsRestTemplateManager extends MutualTLSRestTemplateManag
     private final MeterRegistry meterRegistry;
     private final AbstractClientToken clientToken;
 
-    public DataAwareMtlsRestTemplateManager(ProviderConnectionProperties providerConnectionProperties, ApplicationContext applicationContext, KeyService keyService, AbstractClientToken clientToken, X509TrustManager trustManager, YoltProxySelectorBuilder yoltProxySelectorBuilder, MeterRegistry meterRegistry, String providerKey, RawDataProducer rawDataProducer) {
-        super(providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, meterRegistry, providerKey);
+    public DataAwareMtlsRestTemplateManager(ProviderConnectionProperties providerConnectionProperties, ApplicationContext applicationContext, KeyService keyService, AbstractClientToken clientToken, X509TrustManager trustManager, YoltProxySelectorBuilder yoltProxySelectorBuilder, MeterRegistry meterRegistry, String providerKey, RawDataProducer rawDataProducer, ConnectionPoolReaper connectionPoolReaper, SSLContextFactory sslContextFactory) {
+        super(providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, meterRegistry, providerKey, connectionPoolReaper, sslContextFactory);
         this.providerKey = providerKey;
         this.rawDataProducer = rawDataProducer;
         this.meterRegistry = meterRegistry;
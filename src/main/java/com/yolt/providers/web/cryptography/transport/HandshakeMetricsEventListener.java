@@ -0,0 +1,50 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import lombok.RequiredArgsConstructor;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+
+import javax.net.ssl.SSLSocket;
+
+/**
+ * Records the TLS handshakes of OkHttp like {@link HandshakeMetricsSSLConnectionSocketFactory} does for the Apache
+ * HttpClient. OkHttp reports the end of the handshake (including the hostname verification) before the connection is
+ * handed to the call, which is when the session and the negotiated protocol are known.
+ * <p>
+ * OkHttp creates a listener per call and reports the events of a call on one thread at a time.
+ */
+@RequiredArgsConstructor
+class HandshakeMetricsEventListener extends EventListener {
+
+    private final TlsHandshakeTimers tlsHandshakeTimers;
+
+    private long handshakeStartMillis;
+    private long handshakeStartNanos;
+    private long handshakeDurationNanos = -1;
+
+    static EventListener.Factory factory(final TlsHandshakeTimers tlsHandshakeTimers) {
+        return call -> new HandshakeMetricsEventListener(tlsHandshakeTimers);
+    }
+
+    @Override
+    public void secureConnectStart(final Call call) {
+        handshakeStartMillis = System.currentTimeMillis();
+        handshakeStartNanos = System.nanoTime();
+        handshakeDurationNanos = -1;
+    }
+
+    @Override
+    public void secureConnectEnd(final Call call, final Handshake handshake) {
+        handshakeDurationNanos = System.nanoTime() - handshakeStartNanos;
+    }
+
+    @Override
+    public void connectionAcquired(final Call call, final Connection connection) {
+        if (handshakeDurationNanos >= 0 && connection.socket() instanceof SSLSocket) {
+            tlsHandshakeTimers.record((SSLSocket) connection.socket(), handshakeStartMillis, handshakeDurationNanos, connection.protocol());
+        }
+        handshakeDurationNanos = -1;
+    }
+}
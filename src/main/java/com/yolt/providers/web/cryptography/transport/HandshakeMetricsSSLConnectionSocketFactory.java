@@ -0,0 +1,44 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import okhttp3.Protocol;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Records how long TLS handshakes (including the hostname verification) take and whether a previous session was
+ * resumed. The Apache HttpClient only speaks HTTP/1.1.
+ */
+class HandshakeMetricsSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+    private final TlsHandshakeTimers tlsHandshakeTimers;
+
+    HandshakeMetricsSSLConnectionSocketFactory(final SSLContext sslContext,
+                                               final String[] supportedProtocols,
+                                               final String[] supportedCipherSuites,
+                                               final HostnameVerifier hostnameVerifier,
+                                               final TlsHandshakeTimers tlsHandshakeTimers) {
+        super(sslContext, supportedProtocols, supportedCipherSuites, hostnameVerifier);
+        this.tlsHandshakeTimers = tlsHandshakeTimers;
+    }
+
+    @Override
+    public Socket createLayeredSocket(final Socket socket,
+                                      final String target,
+                                      final int port,
+                                      final HttpContext context) throws IOException {
+        long startMillis = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        Socket layeredSocket = super.createLayeredSocket(socket, target, port, context);
+        long durationNanos = System.nanoTime() - startNanos;
+        if (layeredSocket instanceof SSLSocket) {
+            tlsHandshakeTimers.record((SSLSocket) layeredSocket, startMillis, durationNanos, Protocol.HTTP_1_1);
+        }
+        return layeredSocket;
+    }
+}
@@ -0,0 +1,35 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MutualTLSCacheConfiguration {
+
+    static final String MUTUAL_TLS_CACHE = "mutualTLSCache";
+
+    /**
+     * The mutualTLSCache gets a cache of its own, so it can expire RestTemplateManagers that are no longer used and
+     * close them. Closing hands their connection pools to the {@link ConnectionPoolReaper}, which shuts them down after
+     * a grace period. Hit rate and evictions are exported with the other cache metrics by Spring Boot.
+     */
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> mutualTLSCacheCustomizer(final MutualTLSCacheProperties properties) {
+        return cacheManager -> cacheManager.registerCustomCache(MUTUAL_TLS_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .removalListener(MutualTLSCacheConfiguration::closeRestTemplateManager)
+                .build());
+    }
+
+    private static void closeRestTemplateManager(final Object key, final Object value, final RemovalCause cause) {
+        if (value instanceof MutualTLSRestTemplateManager) {
+            ((MutualTLSRestTemplateManager) value).close();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Data
+@ConfigurationProperties(prefix = "yolt.providers.mutual-tls-cache")
+public class MutualTLSCacheProperties {
+
+    private long maximumSize = 10_000;
+    private Duration expireAfterAccess = Duration.ofDays(1);
+}
@@ -12,10 +12,14 @@ import com.yolt.providers.web.metric.MetricsClientHttpRequestInterceptor;
 import com.yolt.providers.web.service.configuration.ProviderConnectionProperties;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
+import okhttp3.ConnectionPool;
+import okhttp3.ConnectionSpec;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.TlsVersion;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.Registry;
@@ -24,7 +28,6 @@ import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.DefaultHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.DefaultClientConnectionReuseStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -34,20 +37,27 @@ import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.RestTemplate;
 
 import javax.net.ssl.*;
-import java.security.KeyStore;
+import java.io.Closeable;
+import java.net.ProxySelector;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 
 @RequiredArgsConstructor
 @Slf4j
-abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
+abstract class MutualTLSRestTemplateManager implements RestTemplateManager, Closeable {
 
     private static final long KEEP_ALIVE_INDEFINITE_TIMEOUT = 180000L; // Set 3 minutes. Otherwise close the connection.
 
@@ -59,16 +69,45 @@ abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
     private final YoltProxySelectorBuilder yoltProxySelectorBuilder;
     private final MeterRegistry meterRegistry;
     private final String providerKey;
+    private final ConnectionPoolReaper connectionPoolReaper;
+    private final SSLContextFactory sslContextFactory;
+
+    /**
+     * The connection pools of all RestTemplates of this manager.
+     */
+    private final List<PoolingHttpClientConnectionManager> connectionManagers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The connection pools of the RestTemplates of this manager for providers that use HTTP/2.
+     */
+    private final List<ConnectionPool> http2ConnectionPools = new CopyOnWriteArrayList<>();
+
+    /**
+     * Set by {@link #close()}. A running request can still hold this manager after it is closed, the pools that it
+     * creates from then on are retired right away.
+     */
+    private volatile boolean closed;
 
     /**
      * This RestTemplate is one setup for TLS, but without a client keypair.
+     * It is created once, under the {@link #managedRestTemplateLock}.
      */
-    private RestTemplate managedRestTemplate;
+    private volatile RestTemplate managedRestTemplate;
+
+    private final Lock managedRestTemplateLock = new ReentrantLock();
 
     /**
      * RestTemplate setup for mTLS, one *per* client keypair.
+     * They are created under the {@link #managedMutualTLSRestTemplatesLock}.
      */
-    private final Map<MutualTLSReference, RestTemplate> managedMutualTLSRestTemplates = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MutualTLSReference, RestTemplate> managedMutualTLSRestTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Creating a RestTemplate reads the private key from Vault and runs the customization function of the provider, so
+     * it is not done inside {@link ConcurrentMap#computeIfAbsent}: that would block other keys of the map and fail when
+     * the customization function calls this manager again.
+     */
+    private final Lock managedMutualTLSRestTemplatesLock = new ReentrantLock();
 
     /**
      * {@inheritDoc}
@@ -95,37 +134,61 @@ abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
     }
 
     private RestTemplate manageForRestTemplateWithoutMutualTls(RestTemplateManagerConfiguration restTemplateManagerConfiguration) {
-        if (managedRestTemplate == null) {
-            ExternalRestTemplateBuilderFactory externalRestTemplateBuilderFactory = setupExternalRestTemplateBuilderFactory(
-                    null,
-                    null,
-                    restTemplateManagerConfiguration.isDisableRedirectHandling(),
-                    restTemplateManagerConfiguration.getDefaultKeepAliveTimeoutInMillis());
-            managedRestTemplate = restTemplateManagerConfiguration.getCustomizationFunction().apply(externalRestTemplateBuilderFactory);
-            log.info("Created a new RestTemplate in the cache for client-token: {}", clientToken.getSubject()); // NOSHERIFF
+        RestTemplate restTemplate = managedRestTemplate;
+        if (restTemplate != null) {
+            return restTemplate;
+        }
+        managedRestTemplateLock.lock();
+        try {
+            if (managedRestTemplate == null) {
+                ExternalRestTemplateBuilderFactory externalRestTemplateBuilderFactory = setupExternalRestTemplateBuilderFactory(
+                        null,
+                        null,
+                        null,
+                        restTemplateManagerConfiguration.isDisableRedirectHandling(),
+                        restTemplateManagerConfiguration.getDefaultKeepAliveTimeoutInMillis());
+                managedRestTemplate = restTemplateManagerConfiguration.getCustomizationFunction().apply(externalRestTemplateBuilderFactory);
+                log.info("Created a new RestTemplate in the cache for client-token: {}", clientToken.getSubject()); // NOSHERIFF
+            }
+            return managedRestTemplate;
+        } finally {
+            managedRestTemplateLock.unlock();
         }
-        return managedRestTemplate;
     }
 
+    /**
+     * The RestTemplate (and its connection pool) is created at most once per reference: callers that find no RestTemplate
+     * wait for the one that creates it. RestTemplates that were already created are returned without locking.
+     */
     private RestTemplate manageForRestTemplateWithMutualTls(UUID privateTransportKid,
                                                             X509Certificate[] clientCertificatesChain,
                                                             Function<ExternalRestTemplateBuilderFactory, RestTemplate> customizationFunction,
                                                             boolean disableRedirectHandling,
                                                             long defaultKeepAliveTimeoutInMillis) {
         MutualTLSReference keyPairReference = new MutualTLSReference(privateTransportKid, clientCertificatesChain);
-        if (!managedMutualTLSRestTemplates.containsKey(keyPairReference)) {
-            PrivateKey privateKey = determinePrivateKey(clientToken, privateTransportKid);
-            ExternalRestTemplateBuilderFactory externalRestTemplateBuilderFactory =
-                    setupExternalRestTemplateBuilderFactory(privateKey, clientCertificatesChain, disableRedirectHandling, defaultKeepAliveTimeoutInMillis);
+        RestTemplate restTemplate = managedMutualTLSRestTemplates.get(keyPairReference);
+        if (restTemplate != null) {
+            return restTemplate;
+        }
+        managedMutualTLSRestTemplatesLock.lock();
+        try {
+            restTemplate = managedMutualTLSRestTemplates.get(keyPairReference);
+            if (restTemplate == null) {
+                PrivateKey privateKey = determinePrivateKey(clientToken, privateTransportKid);
+                ExternalRestTemplateBuilderFactory externalRestTemplateBuilderFactory =
+                        setupExternalRestTemplateBuilderFactory(privateTransportKid, privateKey, clientCertificatesChain, disableRedirectHandling, defaultKeepAliveTimeoutInMillis);
 
-            RestTemplate restTemplate = customizationFunction.apply(externalRestTemplateBuilderFactory);
-            managedMutualTLSRestTemplates.put(keyPairReference, restTemplate);
+                restTemplate = customizationFunction.apply(externalRestTemplateBuilderFactory);
+                managedMutualTLSRestTemplates.put(keyPairReference, restTemplate);
 
-            String clientCertInfo = clientCertificatesChain.length > 1 ? "clientCertificate" : "clientCertificatesChain";
-            log.info("Created a new RestTemplate for mutual TLS in the cache for client-token: {}, privateTransportKid: {} and {} hashcode: {}",
-                    clientToken.getSubject(), privateTransportKid, clientCertInfo, Arrays.hashCode(clientCertificatesChain)); // NOSHERIFF we want to see for which subject restTemplate was created and what transport certificate was used.
+                String clientCertInfo = clientCertificatesChain.length > 1 ? "clientCertificate" : "clientCertificatesChain";
+                log.info("Created a new RestTemplate for mutual TLS in the cache for client-token: {}, privateTransportKid: {} and {} hashcode: {}",
+                        clientToken.getSubject(), privateTransportKid, clientCertInfo, Arrays.hashCode(clientCertificatesChain)); // NOSHERIFF we want to see for which subject restTemplate was created and what transport certificate was used.
+            }
+            return restTemplate;
+        } finally {
+            managedMutualTLSRestTemplatesLock.unlock();
         }
-        return managedMutualTLSRestTemplates.get(keyPairReference);
     }
 
     /**
@@ -133,29 +196,23 @@ abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
      * <p>
      * If you provide both privateKey and clientCertificate this method will setup the SSLContext for mTLS.  Otherwise it will not.
      */
-    @SneakyThrows
-    private ExternalRestTemplateBuilderFactory setupExternalRestTemplateBuilderFactory(@Nullable PrivateKey privateKey,
+    private ExternalRestTemplateBuilderFactory setupExternalRestTemplateBuilderFactory(@Nullable UUID privateTransportKid,
+                                                                                       @Nullable PrivateKey privateKey,
                                                                                        @Nullable X509Certificate[] clientCertificatesChain,
                                                                                        boolean disableRedirectHandling,
                                                                                        long defaultKeepAliveTimeoutInMillis) {
-        KeyManager[] keyManager = null;
-        if (privateKey != null) {
-            KeyStore keyStore = KeyStore.getInstance("Yolt");
-            keyStore.load(null);
-            keyStore.setKeyEntry("key", privateKey, null, clientCertificatesChain);
-            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-            kmf.init(keyStore, null);
-            keyManager = kmf.getKeyManagers();
+        final SSLContext sslContext = sslContextFactory.getSSLContext(privateTransportKid, privateKey, clientCertificatesChain, trustManager);
+        final TlsHandshakeTimers tlsHandshakeTimers = new TlsHandshakeTimers(meterRegistry, providerKey);
+        if (providerConnectionProperties.getHttp2Providers().contains(providerKey)) {
+            return setupHttp2ExternalRestTemplateBuilderFactory(sslContext, tlsHandshakeTimers, disableRedirectHandling, defaultKeepAliveTimeoutInMillis);
         }
 
-        final SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
-        sslContext.init(keyManager, new TrustManager[]{trustManager}, null);
-
-        final LayeredConnectionSocketFactory socketFactory = new SSLConnectionSocketFactory(
+        final LayeredConnectionSocketFactory socketFactory = new HandshakeMetricsSSLConnectionSocketFactory(
                 sslContext,
                 new String[]{"TLSv1.2", "TLSv1.3"},
                 CipherSuite.getYoltSupportedCipherSuites(),
-                new EmitSEMaEventOnCertificateRotationHostnameVerifier(new DefaultHostnameVerifier())
+                new EmitSEMaEventOnCertificateRotationHostnameVerifier(new DefaultHostnameVerifier()),
+                tlsHandshakeTimers
         );
 
         Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
@@ -163,10 +220,17 @@ abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
                 .register("http", new PlainConnectionSocketFactory())
                 .build();
 
-        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(socketFactoryRegistry);
-        connectionManager.setMaxTotal(providerConnectionProperties.getMaxTotal());
-        connectionManager.setDefaultMaxPerRoute(providerConnectionProperties.getMaxPerRoute());
+        PoolingHttpClientConnectionManager connectionManager = providerConnectionProperties.isAdaptiveMaxPerRouteEnabled(providerKey)
+                ? new AdaptivePoolingHttpClientConnectionManager(socketFactoryRegistry)
+                : new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connectionManager.setMaxTotal(providerConnectionProperties.getMaxTotal(providerKey));
+        connectionManager.setDefaultMaxPerRoute(providerConnectionProperties.getMaxPerRoute(providerKey));
         connectionManager.setValidateAfterInactivity(providerConnectionProperties.getValidateAfterInactivityInMillis());
+        connectionManagers.add(connectionManager);
+        connectionPoolReaper.register(providerKey, connectionManager);
+        if (closed) {
+            connectionPoolReaper.retire(List.of(connectionManager));
+        }
 
         final HttpClientBuilder httpClientBuilder = HttpClients.custom();
         if (disableRedirectHandling) {
@@ -194,6 +258,61 @@ abstract class MutualTLSRestTemplateManager implements RestTemplateManager {
                 .additionalInterceptors(getInterceptors());
     }
 
+    /**
+     * OkHttp negotiates HTTP/2 with ALPN and falls back to HTTP/1.1 when the bank does not support it. Over HTTP/2 all
+     * requests to a bank are multiplexed on a single connection. Idle connections are closed by OkHttp itself after the
+     * keep-alive timeout, so these pools are not registered with the {@link ConnectionPoolReaper}. The TLS handshakes are
+     * recorded by a {@link HandshakeMetricsEventListener}, tagged with the protocol that was negotiated.
+     */
+    private ExternalRestTemplateBuilderFactory setupHttp2ExternalRestTemplateBuilderFactory(SSLContext sslContext,
+                                                                                            TlsHandshakeTimers tlsHandshakeTimers,
+                                                                                            boolean disableRedirectHandling,
+                                                                                            long defaultKeepAliveTimeoutInMillis) {
+        ConnectionSpec tlsConnectionSpec = new ConnectionSpec.Builder(ConnectionSpec.MODERN_TLS)
+                .tlsVersions(TlsVersion.TLS_1_2, TlsVersion.TLS_1_3)
+                .cipherSuites(CipherSuite.getYoltSupportedCipherSuites())
+                .build();
+        ConnectionPool connectionPool = new ConnectionPool(providerConnectionProperties.getMaxPerRoute(providerKey), defaultKeepAliveTimeoutInMillis, TimeUnit.MILLISECONDS);
+        http2ConnectionPools.add(connectionPool);
+        if (closed) {
+            connectionPool.evictAll();
+        }
+
+        // OkHttp does not store cookies unless a CookieJar is configured. Timeouts of 0 mean no timeout.
+        OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionSpecs(List.of(tlsConnectionSpec, ConnectionSpec.CLEARTEXT))
+                .sslSocketFactory(sslContext.getSocketFactory(), trustManager)
+                .hostnameVerifier(new EmitSEMaEventOnCertificateRotationHostnameVerifier(new DefaultHostnameVerifier()))
+                .proxySelector(Optional.ofNullable(yoltProxySelectorBuilder.build(providerKey)).orElseGet(ProxySelector::getDefault))
+                .connectionPool(connectionPool)
+                .eventListenerFactory(HandshakeMetricsEventListener.factory(tlsHandshakeTimers))
+                .followRedirects(!disableRedirectHandling)
+                .followSslRedirects(!disableRedirectHandling)
+                .connectTimeout(Math.max(0, providerConnectionProperties.getConnectTimeoutInMillis()), TimeUnit.MILLISECONDS)
+                .readTimeout(Math.max(0, providerConnectionProperties.getSocketTimeoutInMillis()), TimeUnit.MILLISECONDS)
+                .writeTimeout(Math.max(0, providerConnectionProperties.getSocketTimeoutInMillis()), TimeUnit.MILLISECONDS)
+                .build();
+
+        return applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)
+                .requestFactory(() -> new OkHttp3ClientHttpRequestFactory(okHttpClient))
+                .additionalInterceptors(getInterceptors());
+    }
+
+    /**
+     * Called when this manager is no longer handed out. The RestTemplates might still be in use by running requests,
+     * so the connection pools are shut down by the {@link ConnectionPoolReaper} after a grace period.
+     * <p>
+     * A pool is added to the list before the flag is read, and the flag is set before the list is read, so a pool that
+     * is created while the manager is closed is retired either here or by its creator, or by both.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        connectionPoolReaper.retire(connectionManagers);
+        http2ConnectionPools.forEach(ConnectionPool::evictAll);
+    }
+
     protected List<ClientHttpRequestInterceptor> getInterceptors() {
         return Collections.singletonList(
                 new MetricsClientHttpRequestInterceptor(providerKey, meterRegistry, new DefaultRestTemplateExchangeTagsProvider())
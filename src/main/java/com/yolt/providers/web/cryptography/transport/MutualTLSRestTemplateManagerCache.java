@@ -30,6 +30,8 @@ public class MutualTLSRestTemplateManagerCache {
     private final RawDataProducer rawDataProducer;
     private final MeterRegistry registry;
     private final ApplicationContext applicationContext;
+    private final ConnectionPoolReaper connectionPoolReaper;
+    private final SSLContextFactory sslContextFactory;
 
     public MutualTLSRestTemplateManagerCache(
             final KeyService keyService,
@@ -38,7 +40,9 @@ public class MutualTLSRestTemplateManagerCache {
             final ProviderConnectionProperties providerConnectionProperties,
             final RawDataProducer rawDataProducer,
             final MeterRegistry registry,
-            final ApplicationContext applicationContext
+            final ApplicationContext applicationContext,
+            final ConnectionPoolReaper connectionPoolReaper,
+            final SSLContextFactory sslContextFactory
     ) {
         this.keyService = keyService;
         this.trustManager = trustManagerSupplier.getTrustManager();
@@ -47,14 +51,16 @@ public class MutualTLSRestTemplateManagerCache {
         this.rawDataProducer = rawDataProducer;
         this.registry = registry;
         this.applicationContext = applicationContext;
+        this.connectionPoolReaper = connectionPoolReaper;
+        this.sslContextFactory = sslContextFactory;
     }
 
-    @Cacheable(cacheNames = "mutualTLSCache", key = "{#clientToken?.clientIdClaim, #serviceType, #providerKey, #isFetchData, #providerVersion}")
+    @Cacheable(cacheNames = "mutualTLSCache", sync = true, key = "{#clientToken?.clientIdClaim, #serviceType, #providerKey, #isFetchData, #providerVersion}")
     public RestTemplateManager getForClientProvider(ClientToken clientToken, ServiceType serviceType, String providerKey, boolean isFetchData, ProviderVersion providerVersion) {
         return getRestTemplateManager(clientToken, serviceType, providerKey, isFetchData);
     }
 
-    @Cacheable(cacheNames = "mutualTLSCache", key = "{#clientToken?.clientGroupIdClaim, #serviceType, #providerKey, #isFetchData, #providerVersion}")
+    @Cacheable(cacheNames = "mutualTLSCache", sync = true, key = "{#clientToken?.clientGroupIdClaim, #serviceType, #providerKey, #isFetchData, #providerVersion}")
     public RestTemplateManager getForClientGroupProvider(ClientGroupToken clientToken, ServiceType serviceType, String providerKey, boolean isFetchData, ProviderVersion providerVersion) {
         return getRestTemplateManager(clientToken, serviceType, providerKey, isFetchData);
     }
@@ -63,11 +69,11 @@ public class MutualTLSRestTemplateManagerCache {
         final RestTemplateManager restTemplateManager;
         if (isFetchData) {
             restTemplateManager = new DataAwareMtlsRestTemplateManager(
-                    providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, registry, providerKey, rawDataProducer
+                    providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, registry, providerKey, rawDataProducer, connectionPoolReaper, sslContextFactory
             );
         } else {
             restTemplateManager = new AuthorizationFlowMtlsRestTemplateManager(
-                    providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, registry, providerKey, rawDataProducer
+                    providerConnectionProperties, applicationContext, keyService, clientToken, trustManager, yoltProxySelectorBuilder, registry, providerKey, rawDataProducer, connectionPoolReaper, sslContextFactory
             );
         }
         log.info("Saved a new RestTemplateManager in the cache for client-token: {} and provider: {} and service type: {} and isFetchData: {}",
@@ -0,0 +1,101 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yolt.providers.web.service.configuration.ProviderConnectionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hands out one {@link SSLContext} per transport key, client certificate chain and trust manager, so the key store
+ * and key managers are only set up once and TLS sessions can be resumed by every RestTemplate that uses the same
+ * client identity.
+ * <p>
+ * The client session cache lives in the {@link SSLContext}. Contexts are never shared between client identities,
+ * otherwise a session that was authenticated with the certificate of one client could be resumed for another.
+ * Callers must have verified that the client is allowed to use the transport key before asking for a context.
+ * <p>
+ * Contexts that were not asked for during the configured period are dropped, so the key material of clients that are
+ * gone does not stay in memory until the cache is full. Managers that still hold such a context keep using it.
+ */
+@Component
+public class SSLContextFactory {
+
+    private static final String CACHE_NAME = "sslContextCache";
+
+    private final Cache<SSLContextReference, SSLContext> sslContexts;
+    private final ProviderConnectionProperties providerConnectionProperties;
+
+    public SSLContextFactory(final ProviderConnectionProperties providerConnectionProperties,
+                             final MeterRegistry meterRegistry) {
+        this.providerConnectionProperties = providerConnectionProperties;
+        this.sslContexts = Caffeine.newBuilder()
+                .maximumSize(providerConnectionProperties.getSslContextCacheMaximumSize())
+                .expireAfterAccess(Duration.ofSeconds(providerConnectionProperties.getSslContextCacheExpireAfterAccessInSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sslContexts, CACHE_NAME);
+    }
+
+    /**
+     * For callers: you must provide either both privateKey and clientCertificatesChain or neither.
+     */
+    SSLContext getSSLContext(@Nullable final UUID privateTransportKid,
+                             @Nullable final PrivateKey privateKey,
+                             @Nullable final X509Certificate[] clientCertificatesChain,
+                             final X509TrustManager trustManager) {
+        return sslContexts.get(new SSLContextReference(privateTransportKid, clientCertificatesChain, trustManager),
+                reference -> createSSLContext(privateKey, clientCertificatesChain, trustManager));
+    }
+
+    @SneakyThrows
+    private SSLContext createSSLContext(@Nullable final PrivateKey privateKey,
+                                        @Nullable final X509Certificate[] clientCertificatesChain,
+                                        final X509TrustManager trustManager) {
+        KeyManager[] keyManager = null;
+        if (privateKey != null) {
+            KeyStore keyStore = KeyStore.getInstance("Yolt");
+            keyStore.load(null);
+            keyStore.setKeyEntry("key", privateKey, null, clientCertificatesChain);
+            KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            kmf.init(keyStore, null);
+            keyManager = kmf.getKeyManagers();
+        }
+
+        final SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+        sslContext.init(keyManager, new TrustManager[]{trustManager}, null);
+
+        SSLSessionContext clientSessionContext = sslContext.getClientSessionContext();
+        clientSessionContext.setSessionCacheSize(providerConnectionProperties.getTlsSessionCacheSize());
+        clientSessionContext.setSessionTimeout(providerConnectionProperties.getTlsSessionTimeoutInSeconds());
+        return sslContext;
+    }
+
+    /**
+     * Same identity as a MutualTLSReference of a manager. The trust manager is compared by identity, all managers
+     * created by the application share the same one.
+     */
+    @Value
+    private static class SSLContextReference {
+
+        UUID privateTransportKid;
+        X509Certificate[] clientCertificatesChain;
+        X509TrustManager trustManager;
+    }
+}
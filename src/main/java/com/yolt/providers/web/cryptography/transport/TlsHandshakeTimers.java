@@ -0,0 +1,47 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Protocol;
+
+import javax.net.ssl.SSLSocket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The durations of the TLS handshakes with a provider, tagged with whether a previous session was resumed and with the
+ * application protocol that was negotiated. A resumed session was created before the handshake started, a new session
+ * during the handshake.
+ */
+class TlsHandshakeTimers {
+
+    private static final String HANDSHAKE_METRIC_NAME = "provider_tls_handshake";
+
+    private final Timer fullHttp1HandshakeTimer;
+    private final Timer resumedHttp1HandshakeTimer;
+    private final Timer fullHttp2HandshakeTimer;
+    private final Timer resumedHttp2HandshakeTimer;
+
+    TlsHandshakeTimers(final MeterRegistry meterRegistry, final String providerKey) {
+        this.fullHttp1HandshakeTimer = handshakeTimer(meterRegistry, providerKey, false, Protocol.HTTP_1_1);
+        this.resumedHttp1HandshakeTimer = handshakeTimer(meterRegistry, providerKey, true, Protocol.HTTP_1_1);
+        this.fullHttp2HandshakeTimer = handshakeTimer(meterRegistry, providerKey, false, Protocol.HTTP_2);
+        this.resumedHttp2HandshakeTimer = handshakeTimer(meterRegistry, providerKey, true, Protocol.HTTP_2);
+    }
+
+    void record(final SSLSocket sslSocket, final long handshakeStartMillis, final long durationNanos, final Protocol protocol) {
+        boolean resumed = sslSocket.getSession().getCreationTime() < handshakeStartMillis;
+        Timer timer = protocol == Protocol.HTTP_2
+                ? (resumed ? resumedHttp2HandshakeTimer : fullHttp2HandshakeTimer)
+                : (resumed ? resumedHttp1HandshakeTimer : fullHttp1HandshakeTimer);
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer handshakeTimer(final MeterRegistry meterRegistry, final String providerKey, final boolean resumed, final Protocol protocol) {
+        return Timer.builder(HANDSHAKE_METRIC_NAME)
+                .description("Duration of TLS handshakes with a provider")
+                .tag("provider", providerKey)
+                .tag("resumed", Boolean.toString(resumed))
+                .tag("protocol", protocol.toString())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,90 @@
+package com.yolt.providers.web.encryption;
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Reusable AES/GCM/NoPadding engine for a single secret key.
+ * <p>
+ * The key is parsed once, the {@link Cipher} is reused per thread and a single {@link SecureRandom} is shared by all
+ * engines, so an encrypt or decrypt only costs the cipher initialization and the actual work. The ciphertext format
+ * is the one {@link AesEncryptionUtil} always produced: the hex encoded 32 byte IV followed by the hex encoded
+ * ciphertext and 128 bit authentication tag.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class AesGcmEngine {
+
+    private static final String TRANSFORMATION = AesEncryptionUtil.ALGORITHM + "/GCM/NoPadding";
+    private static final int IV_LENGTH = 256 >> 3;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(AesGcmEngine::createCipher);
+
+    private final SecretKeySpec key;
+
+    public AesGcmEngine(final byte[] secretKey) {
+        this.key = new SecretKeySpec(secretKey, AesEncryptionUtil.ALGORITHM);
+    }
+
+    public static AesGcmEngine fromHexKey(final String secretKey) {
+        try {
+            return new AesGcmEngine(Hex.decodeHex(secretKey));
+        } catch (DecoderException e) {
+            throw new EncryptionException("Exception while parsing secret key", e);
+        }
+    }
+
+    public String encrypt(final String input) {
+        return encrypt(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String encrypt(final byte[] input) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            SECURE_RANDOM.nextBytes(iv);
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] output = new byte[IV_LENGTH + cipher.getOutputSize(input.length)];
+            System.arraycopy(iv, 0, output, 0, IV_LENGTH);
+            cipher.doFinal(input, 0, input.length, output, IV_LENGTH);
+            return Hex.encodeHexString(output);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Exception while encrypting", e);
+        }
+    }
+
+    public String decrypt(final String encrypted) {
+        return new String(decryptToBytes(encrypted), StandardCharsets.UTF_8);
+    }
+
+    public byte[] decryptToBytes(final String encrypted) {
+        try {
+            byte[] input = Hex.decodeHex(encrypted);
+            if (input.length < IV_LENGTH) {
+                throw new EncryptionException("Exception while decrypting", new IllegalArgumentException("Input is shorter than the IV"));
+            }
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, input, 0, IV_LENGTH));
+            return cipher.doFinal(input, IV_LENGTH, input.length - IV_LENGTH);
+        } catch (DecoderException | GeneralSecurityException e) {
+            throw new EncryptionException("Exception while decrypting", e);
+        }
+    }
+
+    private static Cipher createCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Exception while creating cipher", e);
+        }
+    }
+}
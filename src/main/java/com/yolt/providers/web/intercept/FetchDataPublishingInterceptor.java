@@ -1,6 +1,5 @@
 package com.yolt.providers.web.intercept;
 
-import com.yolt.providers.common.rest.http.WrappedClientHttpResponse;
 import lombok.RequiredArgsConstructor;
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
 import org.springframework.core.Ordered;
@@ -13,7 +12,8 @@ import org.springframework.http.client.ClientHttpResponse;
 import java.io.IOException;
 
 /**
- * Removes 'fetch-data' tag (if present) and publishes raw data to Kafka asynchronously
+ * Removes 'fetch-data' tag (if present) and publishes raw data to Kafka asynchronously.
+ * The body is captured while the caller reads it, see {@link RawDataCapturingClientHttpResponse}.
  */
 @RequiredArgsConstructor
 public class FetchDataPublishingInterceptor implements ClientHttpRequestInterceptor, Ordered {
@@ -31,7 +31,7 @@ public class FetchDataPublishingInterceptor implements ClientHttpRequestIntercep
 
     @Override
     public ClientHttpResponse intercept(final HttpRequest request, final byte[] body, final ClientHttpRequestExecution execution) throws IOException {
-        final WrappedClientHttpResponse response = new WrappedClientHttpResponse(execution.execute(request, body));
+        final ClientHttpResponse response = execution.execute(request, body);
 
         final String httpMethod;
         if (request.getMethod() == null) {
@@ -41,7 +41,9 @@ public class FetchDataPublishingInterceptor implements ClientHttpRequestIntercep
         }
 
         if (HttpStatus.OK.equals(response.getStatusCode())) {
-            rawDataProducer.sendDataAsync(RawDataSource.FETCH_DATA, new String(response.getBytes()), providerKey, clientToken, httpMethod, request.getURI().toString());
+            final String httpRequestUri = request.getURI().toString();
+            return new RawDataCapturingClientHttpResponse(response, rawDataProducer.getMaxCaptureSizeInBytes(), (capturedBody, truncated) ->
+                    rawDataProducer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, capturedBody, truncated, providerKey, clientToken, httpMethod, httpRequestUri));
         }
         return response;
     }
@@ -0,0 +1,154 @@
+package com.yolt.providers.web.intercept;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Copies the body of a response into a buffer while the caller reads it, so the body is streamed to the caller instead
+ * of being buffered in full. At most maxCaptureSizeInBytes of the body are captured. When the response is closed, the
+ * part of the body that was not read yet is captured as well and the capture is handed over once.
+ * <p>
+ * The body can be read again as long as it fits in the capture: the captured part is replayed and the rest is read on
+ * from the response. A body that is larger than the capture can only be read once.
+ */
+@Slf4j
+class RawDataCapturingClientHttpResponse implements ClientHttpResponse {
+
+    private static final int DRAIN_BUFFER_SIZE = 8192;
+
+    private final ClientHttpResponse response;
+    private final int maxCaptureSizeInBytes;
+    private final CaptureListener captureListener;
+    private final ByteArrayOutputStream capturedBody = new ByteArrayOutputStream();
+
+    private InputStream body;
+    private int capturedBytes;
+    private boolean truncated;
+    private boolean closed;
+
+    RawDataCapturingClientHttpResponse(final ClientHttpResponse response,
+                                       final int maxCaptureSizeInBytes,
+                                       final CaptureListener captureListener) {
+        this.response = response;
+        this.maxCaptureSizeInBytes = maxCaptureSizeInBytes;
+        this.captureListener = captureListener;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return response.getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return response.getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return response.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        if (body == null) {
+            body = new CapturingInputStream(response.getBody());
+            return body;
+        }
+        if (truncated) {
+            throw new IOException("The body is larger than the " + maxCaptureSizeInBytes + " bytes that are captured and can only be read once");
+        }
+        return new SequenceInputStream(new ByteArrayInputStream(capturedBody.toByteArray()), body);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drain();
+            captureListener.captured(capturedBody.toByteArray(), truncated);
+        } catch (IOException e) {
+            log.warn("Failed to capture the raw data of a response, it is not published", e);
+        } finally {
+            response.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        InputStream in = body != null ? body : getBody();
+        byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+        while (!truncated && in.read(buffer) != -1) {
+            // The bytes are captured by the CapturingInputStream.
+        }
+    }
+
+    private void capture(final byte[] bytes, final int offset, final int length) {
+        if (truncated) {
+            return;
+        }
+        int capturable = Math.min(length, maxCaptureSizeInBytes - capturedBytes);
+        capturedBody.write(bytes, offset, capturable);
+        capturedBytes += capturable;
+        truncated = capturable < length;
+    }
+
+    @FunctionalInterface
+    interface CaptureListener {
+
+        void captured(byte[] body, boolean truncated);
+    }
+
+    private class CapturingInputStream extends FilterInputStream {
+
+        CapturingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                capture(new byte[]{(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0) {
+                capture(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, DRAIN_BUFFER_SIZE)];
+            int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
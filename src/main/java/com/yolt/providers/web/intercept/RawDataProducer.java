@@ -1,18 +1,47 @@
 package com.yolt.providers.web.intercept;
 
+import com.yolt.providers.web.configuration.RawDataProperties;
 import com.yolt.providers.web.metric.KafkaMessageMetricsContext;
 import com.yolt.providers.web.metric.PayloadSizeMonitoredKafkaTemplateWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.core.ProducerPostProcessor;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import static com.yolt.providers.web.configuration.ApplicationConfiguration.RAW_DATA_PUBLISHER_EXECUTOR;
+
+/**
+ * Publishes raw data with a kafka producer of its own. Raw data grows with the traffic to banks, so records are batched
+ * and compressed, and bank responses are sent as bytes. The metadata of a record is sent in the headers.
+ * <p>
+ * Raw data waits for the publisher threads in a queue that is bounded by the number of records and by their bytes.
+ * Raw data that does not fit is dropped and counted in raw_data_dropped.
+ */
 @Slf4j
 @Component
 public class RawDataProducer {
@@ -21,29 +50,145 @@ public class RawDataProducer {
     private static final String HTTP_REQUEST_METHOD = "http-request-method";
     private static final String HTTP_REQUEST_URI = "http-request-uri";
     private static final String RAW_DATA_SOURCE = "raw-data-source";
+    private static final String RAW_DATA_TRUNCATED = "raw-data-truncated";
+    private static final String RAW_DATA_KAFKA_TEMPLATE = "rawDataKafkaTemplate";
 
-    private final PayloadSizeMonitoredKafkaTemplateWrapper<String, String> payloadSizeMonitoredKafkaTemplateWrapper;
+    private final PayloadSizeMonitoredKafkaTemplateWrapper<String, byte[]> payloadSizeMonitoredKafkaTemplateWrapper;
     private final String rawDataTopicName;
+    private final RawDataProperties rawDataProperties;
+    private final ProducerFactory<String, byte[]> rawDataProducerFactory;
+    private final Executor rawDataPublisherExecutor;
+    private final Semaphore queuedBytes;
+    private final Counter droppedRawData;
 
+    /**
+     * The connection settings (brokers, security) and the listeners and post processors that instrument the producers
+     * are taken from the producer factory of the application.
+     * <p>
+     * The producer factory and kafka template of raw data are not registered as beans. The application's producer factory
+     * and kafka template are auto-configured only if there are no other beans of these types, and the kafka templates that
+     * are injected by their generic type would no longer resolve to a single bean.
+     */
+    @Autowired
     public RawDataProducer(@Value("${yolt.kafka.topics.providerRawData.topic-name}") final String rawDataTopicName,
-                           final PayloadSizeMonitoredKafkaTemplateWrapper<String, String> payloadSizeMonitoredKafkaTemplateWrapper
+                           final ProducerFactory<?, ?> producerFactory,
+                           final MeterRegistry meterRegistry,
+                           final RawDataProperties rawDataProperties,
+                           final ApplicationContext applicationContext,
+                           @Qualifier(RAW_DATA_PUBLISHER_EXECUTOR) final Executor rawDataPublisherExecutor
     ) {
+        this(rawDataTopicName, rawDataProducerFactory(producerFactory, rawDataProperties, applicationContext), rawDataProperties, meterRegistry, applicationContext, rawDataPublisherExecutor);
+    }
+
+    RawDataProducer(final String rawDataTopicName,
+                    final ProducerFactory<String, byte[]> rawDataProducerFactory,
+                    final RawDataProperties rawDataProperties,
+                    final MeterRegistry meterRegistry,
+                    final ApplicationContext applicationContext,
+                    final Executor rawDataPublisherExecutor) {
         this.rawDataTopicName = rawDataTopicName;
-        this.payloadSizeMonitoredKafkaTemplateWrapper = payloadSizeMonitoredKafkaTemplateWrapper;
+        this.rawDataProperties = rawDataProperties;
+        this.rawDataProducerFactory = rawDataProducerFactory;
+        this.rawDataPublisherExecutor = rawDataPublisherExecutor;
+        this.queuedBytes = new Semaphore(rawDataProperties.getPublisherQueueCapacityInBytes());
+        this.droppedRawData = Counter.builder("raw_data_dropped")
+                .description("Raw data that was not published because the queue of the publisher was full")
+                .register(meterRegistry);
+        KafkaTemplate<String, byte[]> rawDataKafkaTemplate = new KafkaTemplate<>(rawDataProducerFactory);
+        // The kafka template looks up the meter registry of its micrometer timers in the application context.
+        rawDataKafkaTemplate.setBeanName(RAW_DATA_KAFKA_TEMPLATE);
+        rawDataKafkaTemplate.setApplicationContext(applicationContext);
+        this.payloadSizeMonitoredKafkaTemplateWrapper = new PayloadSizeMonitoredKafkaTemplateWrapper<>(meterRegistry, rawDataKafkaTemplate);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ProducerFactory<String, byte[]> rawDataProducerFactory(final ProducerFactory<?, ?> producerFactory,
+                                                                         final RawDataProperties rawDataProperties,
+                                                                         final ApplicationContext applicationContext) {
+        DefaultKafkaProducerFactory<String, byte[]> rawDataProducerFactory = new DefaultKafkaProducerFactory<>(
+                rawDataProducerConfiguration(producerFactory.getConfigurationProperties(), rawDataProperties),
+                new StringSerializer(),
+                new ByteArraySerializer());
+        producerFactory.getListeners().forEach(listener -> rawDataProducerFactory.addListener((ProducerFactory.Listener) listener));
+        producerFactory.getPostProcessors().forEach(postProcessor -> rawDataProducerFactory.addPostProcessor((ProducerPostProcessor) postProcessor));
+        rawDataProducerFactory.setApplicationContext(applicationContext);
+        return rawDataProducerFactory;
+    }
+
+    static Map<String, Object> rawDataProducerConfiguration(final Map<String, Object> applicationProducerConfiguration,
+                                                            final RawDataProperties rawDataProperties) {
+        Map<String, Object> configuration = new HashMap<>(applicationProducerConfiguration);
+        configuration.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configuration.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configuration.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, rawDataProperties.getProducerCompressionType());
+        configuration.put(ProducerConfig.LINGER_MS_CONFIG, rawDataProperties.getProducerLingerInMillis());
+        configuration.put(ProducerConfig.BATCH_SIZE_CONFIG, rawDataProperties.getProducerBatchSizeInBytes());
+        // The id of a transactional producer factory must not be shared, raw data is not sent in transactions.
+        configuration.remove(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+        return configuration;
+    }
+
+    /**
+     * Sends the records that are still lingering in a batch and closes the producer before the application stops.
+     */
+    @PreDestroy
+    public void close() {
+        rawDataProducerFactory.reset();
+    }
+
+    public int getMaxCaptureSizeInBytes() {
+        return rawDataProperties.getMaxCaptureSizeInBytes();
     }
 
-    @Async
     public void sendDataAsync(final RawDataSource source, final String rawData, final String providerKey, final AbstractClientToken clientToken, final String httpRequestMethod, final String httpRequestUri) {
-        final Message<String> message = MessageBuilder
+        publishAsync(source, rawData.getBytes(StandardCharsets.UTF_8), false, providerKey, clientToken, httpRequestMethod, httpRequestUri);
+    }
+
+    /**
+     * Raw data that was captured from a bank response, as is. The producer compresses the batches.
+     */
+    public void sendCapturedDataAsync(final RawDataSource source, final byte[] rawData, final boolean truncated, final String providerKey, final AbstractClientToken clientToken, final String httpRequestMethod, final String httpRequestUri) {
+        publishAsync(source, rawData, truncated, providerKey, clientToken, httpRequestMethod, httpRequestUri);
+    }
+
+    /**
+     * The bytes of the raw data are reserved before it is queued and released once the kafka producer took the record,
+     * which buffers it within its own buffer.memory.
+     */
+    private void publishAsync(final RawDataSource source, final byte[] rawData, final boolean truncated, final String providerKey, final AbstractClientToken clientToken, final String httpRequestMethod, final String httpRequestUri) {
+        final int size = rawData.length;
+        if (!queuedBytes.tryAcquire(size)) {
+            droppedRawData.increment();
+            return;
+        }
+        try {
+            rawDataPublisherExecutor.execute(() -> {
+                try {
+                    send(source, rawData, truncated, providerKey, clientToken, httpRequestMethod, httpRequestUri);
+                } finally {
+                    queuedBytes.release(size);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedBytes.release(size);
+            droppedRawData.increment();
+        }
+    }
+
+    private void send(final RawDataSource source, final byte[] rawData, final boolean truncated, final String providerKey, final AbstractClientToken clientToken, final String httpRequestMethod, final String httpRequestUri) {
+        final MessageBuilder<byte[]> messageBuilder = MessageBuilder
                 .withPayload(rawData)
                 .setHeader(KafkaHeaders.TOPIC, rawDataTopicName)
                 .setHeader(RAW_DATA_SOURCE, source.name())
                 .setHeader(PROVIDER_MDC_KEY, providerKey)
                 .setHeader(HTTP_REQUEST_METHOD, httpRequestMethod)
-                .setHeader(HTTP_REQUEST_URI, httpRequestUri)
-                .build();
+                .setHeader(HTTP_REQUEST_URI, httpRequestUri);
+        if (truncated) {
+            messageBuilder.setHeader(RAW_DATA_TRUNCATED, "true");
+        }
+        final Message<byte[]> message = messageBuilder.build();
 
-        final ListenableFuture<SendResult<String, String>> future = payloadSizeMonitoredKafkaTemplateWrapper.send(message,
+        final ListenableFuture<SendResult<String, byte[]>> future = payloadSizeMonitoredKafkaTemplateWrapper.send(message,
                 KafkaMessageMetricsContext.from(rawDataTopicName, clientToken, providerKey));
         future.addCallback(
                 result -> { // NO-OP: we don't want to do any action here on successful outcome
@@ -2,23 +2,32 @@ package com.yolt.providers.web.metric;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
-import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRequest;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Timers are cached by method and status, so a request only costs a map lookup. The tags of a timer are asked from
+ * the {@link RestTemplateExchangeTagsProvider} once, they may therefore only depend on the method and the status.
+ * Once the cache is full, exchanges with a new method and status are recorded on a single overflow timer.
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInterceptor, Ordered {
 
     private static final String TIMER_METRIC_NAME = "restclient.providers.request.duration";
     private static final String TIMER_METRIC_DESC = "Timer of URL Providers operations";
+    private static final int DEFAULT_MAX_TIMERS = 100;
+    private static final int UNKNOWN_STATUS = -1;
 
     /**
      * For explanation please consult README section dedicated to order of interceptors execution
@@ -28,6 +37,25 @@ public class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInt
     private final String providerKey;
     private final MeterRegistry meterRegistry;
     private final RestTemplateExchangeTagsProvider restTemplateExchangeTags;
+    private final int maxTimers;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private volatile Timer overflowTimer;
+
+    public MetricsClientHttpRequestInterceptor(final String providerKey,
+                                               final MeterRegistry meterRegistry,
+                                               final RestTemplateExchangeTagsProvider restTemplateExchangeTags) {
+        this(providerKey, meterRegistry, restTemplateExchangeTags, DEFAULT_MAX_TIMERS);
+    }
+
+    MetricsClientHttpRequestInterceptor(final String providerKey,
+                                        final MeterRegistry meterRegistry,
+                                        final RestTemplateExchangeTagsProvider restTemplateExchangeTags,
+                                        final int maxTimers) {
+        this.providerKey = providerKey;
+        this.meterRegistry = meterRegistry;
+        this.restTemplateExchangeTags = restTemplateExchangeTags;
+        this.maxTimers = maxTimers;
+    }
 
     @Override
     public ClientHttpResponse intercept(HttpRequest request, byte[] body,
@@ -38,21 +66,56 @@ public class MetricsClientHttpRequestInterceptor implements ClientHttpRequestInt
             response = execution.execute(request, body);
             return response;
         } finally {
-            getTimeBuilder(providerKey, request, response).register(meterRegistry)
-                    .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            getTimer(request, response).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
         }
     }
 
-    private Timer.Builder getTimeBuilder(String providerKey,
-                                         HttpRequest request,
-                                         ClientHttpResponse response) {
-        return Timer.builder(TIMER_METRIC_NAME)
+    private Timer getTimer(HttpRequest request,
+                           ClientHttpResponse response) {
+        TimerKey key = new TimerKey(request.getMethod(), getRawStatusCode(response));
+        Timer timer = timers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        if (timers.size() >= maxTimers) {
+            return getOverflowTimer();
+        }
+        return timers.computeIfAbsent(key, k -> Timer.builder(TIMER_METRIC_NAME)
                 .tags(restTemplateExchangeTags.getTags(providerKey, request, response))
-                .description(TIMER_METRIC_DESC);
+                .description(TIMER_METRIC_DESC)
+                .register(meterRegistry));
+    }
+
+    private Timer getOverflowTimer() {
+        if (overflowTimer == null) {
+            overflowTimer = Timer.builder(TIMER_METRIC_NAME)
+                    .tags(RestTemplateExchangeTags.overflow(providerKey))
+                    .description(TIMER_METRIC_DESC)
+                    .register(meterRegistry);
+        }
+        return overflowTimer;
+    }
+
+    private static int getRawStatusCode(ClientHttpResponse response) {
+        if (response == null) {
+            return UNKNOWN_STATUS;
+        }
+        try {
+            return response.getRawStatusCode();
+        } catch (IOException e) {
+            return UNKNOWN_STATUS;
+        }
     }
 
     @Override
     public int getOrder() {
         return ORDER;
     }
-}
\ No newline at end of file
+
+    @Value
+    private static class TimerKey {
+
+        HttpMethod method;
+        int rawStatusCode;
+    }
+}
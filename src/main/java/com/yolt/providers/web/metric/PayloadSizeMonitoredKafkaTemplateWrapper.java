@@ -2,7 +2,6 @@ package com.yolt.providers.web.metric;
 
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Tag;
 import lombok.RequiredArgsConstructor;
 import org.apache.kafka.common.errors.RecordTooLargeException;
 import org.springframework.kafka.KafkaException;
@@ -13,8 +12,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.util.concurrent.ListenableFuture;
 
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 @RequiredArgsConstructor
@@ -29,6 +29,7 @@ public class PayloadSizeMonitoredKafkaTemplateWrapper<K, V> {
 
     private final MeterRegistry meterRegistry;
     private final KafkaTemplate<K, V> kafkaTemplate;
+    private final Map<KafkaMessageMetricsContext, DistributionSummary> payloadSizeSummaries = new ConcurrentHashMap<>();
 
     public ListenableFuture<SendResult<K, V>> send(Message<V> message, KafkaMessageMetricsContext context) {
         try {
@@ -82,22 +83,20 @@ public class PayloadSizeMonitoredKafkaTemplateWrapper<K, V> {
 
     private void recordKafkaPayloadSize(final KafkaMessageMetricsContext context,
                                         final Integer kafkaPayloadSizeInBytes) {
-        List<Tag> tags = context.asTags();
-        DistributionSummary summary = findDistributionSummary(tags)
-                .orElseGet(() -> createDistributionSummary(tags));
-        summary.record(kafkaPayloadSizeInBytes.doubleValue());
+        payloadSizeSummary(context).record(kafkaPayloadSizeInBytes.doubleValue());
     }
 
-    private Optional<DistributionSummary> findDistributionSummary(final List<Tag> tags) {
-        return Optional.ofNullable(meterRegistry.find(KAFKA_PAYLOAD_SIZE_METRIC_NAME)
-                .tags(tags)
-                .summary());
+    /**
+     * Resolved once per context, every later send is a map lookup instead of a search through the registry.
+     */
+    DistributionSummary payloadSizeSummary(final KafkaMessageMetricsContext context) {
+        return payloadSizeSummaries.computeIfAbsent(context, this::createDistributionSummary);
     }
 
-    private DistributionSummary createDistributionSummary(final List<Tag> tags) {
+    private DistributionSummary createDistributionSummary(final KafkaMessageMetricsContext context) {
         return DistributionSummary.builder(KAFKA_PAYLOAD_SIZE_METRIC_NAME)
                 .baseUnit(BASE_UNITS_BYTES)
-                .tags(tags)
+                .tags(context.asTags())
                 .description(KAFKA_PAYLOAD_SIZE_METRIC_DESCRIPTION)
                 .register(meterRegistry);
     }
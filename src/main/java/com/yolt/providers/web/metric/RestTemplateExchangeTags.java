@@ -10,6 +10,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpResponse;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import static net.logstash.logback.marker.Markers.append;
 
@@ -31,6 +32,7 @@ public final class RestTemplateExchangeTags {
     private static final Tag HTTP_STATUS_DESC_SUCCESS = Tag.of(TAG_HTTP_STATUS_DESC, "SUCCESS");
     private static final Tag HTTP_STATUS_DESC_UNKNOWN = Tag.of(TAG_HTTP_STATUS_DESC, "-1");
     private static final Tag HTTP_STATUS_UNKNOWN = Tag.of(TAG_HTTP_STATUS, "-1");
+    private static final String OVERFLOW = "OVERFLOW";
 
     public static Tag method(HttpRequest request) {
         return Tag.of(TAG_METHOD, request.getMethod().name());
@@ -41,6 +43,17 @@ public final class RestTemplateExchangeTags {
         return Tag.of(TAG_PROVIDER, provider);
     }
 
+    /**
+     * Tags of the exchanges that are recorded after the maximum number of timers of a provider has been reached.
+     */
+    public static Iterable<Tag> overflow(String providerKey) {
+        return Arrays.asList(
+                Tag.of(TAG_METHOD, OVERFLOW),
+                Tag.of(TAG_HTTP_STATUS, OVERFLOW),
+                Tag.of(TAG_HTTP_STATUS_DESC, OVERFLOW),
+                provider(providerKey));
+    }
+
     public static Tag status(ClientHttpResponse response) {
         try {
             if (response == null) {
@@ -1,37 +1,126 @@
 package com.yolt.providers.web.rest;
 
+import com.yolt.providers.web.configuration.InternalConnectionProperties;
+import com.yolt.providers.web.cryptography.transport.TimeLimitedConnectionKeepAliveStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
 import nl.ing.lovebird.logging.MDCContextCreator;
+import org.apache.http.client.config.CookieSpecs;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.boot.web.client.RestTemplateCustomizer;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import java.io.IOException;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class has been moved from Providers commons to make commons independent from lovebirdcommons
+ * <p>
+ * All rest templates that are built share a single connection pool that keeps connections to the internal services
+ * alive, so calls do not pay for a new connection every time. The pool is exposed as httpcomponents.httpclient.pool.*
+ * metrics with httpclient=internal. Like the default client of a RestTemplate, it honours the javax.net.ssl.* and proxy
+ * system properties of the JVM.
+ * <p>
+ * Request bodies are buffered, so a request can be retried on another connection when a kept-alive one turns out to be
+ * stale. A rest template that sends bodies too large to buffer can use the {@link #getStreamingRequestFactory()}.
  */
 
 @Component
 public class InternalRestTemplateBuilder extends RestTemplateBuilder {
 
-    public InternalRestTemplateBuilder(final RestTemplateCustomizer... customizers) {
-        super(prepareRestTemplateCustomizers(customizers));
+    private static final String POOL_NAME = "internal";
+
+    private final CloseableHttpClient httpClient;
+    private final ClientHttpRequestFactory streamingRequestFactory;
+
+    @Autowired
+    public InternalRestTemplateBuilder(final InternalConnectionProperties internalConnectionProperties,
+                                       final MeterRegistry meterRegistry,
+                                       final RestTemplateCustomizer... customizers) {
+        this(createHttpClient(internalConnectionProperties, meterRegistry), customizers);
     }
 
-    private static RestTemplateCustomizer[] prepareRestTemplateCustomizers(final RestTemplateCustomizer[] customizers) {
+    private InternalRestTemplateBuilder(final CloseableHttpClient httpClient, final RestTemplateCustomizer[] customizers) {
+        super(prepareRestTemplateCustomizers(new HttpComponentsClientHttpRequestFactory(httpClient), customizers));
+        this.httpClient = httpClient;
+        this.streamingRequestFactory = createStreamingRequestFactory(httpClient);
+    }
+
+    private static CloseableHttpClient createHttpClient(final InternalConnectionProperties properties, final MeterRegistry meterRegistry) {
+        // A connection manager that is passed to the builder does not pick up the system properties by itself.
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build());
+        connectionManager.setMaxTotal(properties.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(properties.getMaxPerRoute());
+        connectionManager.setValidateAfterInactivity((int) properties.getValidateAfterInactivity().toMillis());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setCookieSpec(CookieSpecs.IGNORE_COOKIES)
+                        .setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis())
+                        .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                        .setSocketTimeout((int) properties.getSocketTimeout().toMillis())
+                        .build())
+                .setKeepAliveStrategy(TimeLimitedConnectionKeepAliveStrategy.withDefaultKeepAliveTimeoutInMillis(properties.getKeepAlive().toMillis()))
+                .evictExpiredConnections()
+                .evictIdleConnections(properties.getIdleConnectionTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Request bodies are not buffered, a body that is written to the request goes straight to the connection. Such a
+     * request can not be retried, so only use it where the body is too large to hold in memory.
+     */
+    private static ClientHttpRequestFactory createStreamingRequestFactory(final CloseableHttpClient httpClient) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setBufferRequestBody(false);
+        return requestFactory;
+    }
+
+    private static RestTemplateCustomizer[] prepareRestTemplateCustomizers(final ClientHttpRequestFactory requestFactory,
+                                                                           final RestTemplateCustomizer[] customizers) {
         RestTemplateCustomizer[] internalCustomizers = Arrays.copyOf(customizers, customizers.length + 1);
-        internalCustomizers[internalCustomizers.length - 1] = restTemplate ->
-                restTemplate.setInterceptors(Collections.singletonList((request, body, execution) -> {
-                    attachSleuthHeaders(request.getHeaders());
-                    return execution.execute(request, body);
-                }));
+        internalCustomizers[internalCustomizers.length - 1] = restTemplate -> {
+            restTemplate.setRequestFactory(requestFactory);
+            // Interceptors buffer the whole request body, so the headers are attached when the request is created instead.
+            restTemplate.getClientHttpRequestInitializers().add(request -> attachSleuthHeaders(request.getHeaders()));
+        };
         return internalCustomizers;
     }
 
+    /**
+     * Uses the shared connection pool, but writes request bodies straight to the connection instead of buffering them.
+     */
+    public ClientHttpRequestFactory getStreamingRequestFactory() {
+        return streamingRequestFactory;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
     /**
      * Propagate this headers, that are usually attached by a Sleuth.
      * Due to Sleuth being default disabled in providers, we are adding these manually for now.
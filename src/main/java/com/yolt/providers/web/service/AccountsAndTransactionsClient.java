@@ -12,10 +12,11 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
 
 import static com.yolt.providers.web.configuration.ApplicationConfiguration.OBJECT_MAPPER;
@@ -35,28 +36,36 @@ public class AccountsAndTransactionsClient {
         this.restTemplate = internalRestTemplateBuilder
                 .rootUri(baseUrl)
                 .build();
+        this.restTemplate.setRequestFactory(internalRestTemplateBuilder.getStreamingRequestFactory());
     }
 
+    /**
+     * The request is gzipped while it is serialized and streamed to the connection with chunked transfer encoding, so
+     * the (large) request is never held in memory as a whole.
+     */
     public void postProviderAccounts(@NonNull ClientUserToken clientUserToken, IngestionRequestDTO ingestionRequestDTO) {
         var userIdString = clientUserToken.getUserIdClaim();
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.add(ClientTokenConstants.CLIENT_TOKEN_HEADER_NAME, clientUserToken.getSerialized());
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             GZIPOutputStream gzipOutputStream = new GZIPOutputStream(baos)) {
-            objectMapper.writeValue(gzipOutputStream, ingestionRequestDTO);
-
-            HttpEntity<byte[]> request = new HttpEntity<>(baos.toByteArray(), headers);
+        ResponseEntity<String> exchange = restTemplate.execute("/internal/users/{userId}/provider-accounts", HttpMethod.POST, request -> {
+            HttpHeaders headers = request.getHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.add(ClientTokenConstants.CLIENT_TOKEN_HEADER_NAME, clientUserToken.getSerialized());
+            if (request instanceof StreamingHttpOutputMessage) {
+                ((StreamingHttpOutputMessage) request).setBody(body -> writeGzipped(body, ingestionRequestDTO));
+            } else {
+                writeGzipped(request.getBody(), ingestionRequestDTO);
+            }
+        }, restTemplate.responseEntityExtractor(String.class), userIdString);
 
-            ResponseEntity<String> exchange = restTemplate.exchange("/internal/users/{userId}/provider-accounts", HttpMethod.POST, request, String.class, userIdString);
+        if (!exchange.getStatusCode().is2xxSuccessful()) {
+            log.error("something went wrong sending ingestionRequestDTO over http! status: {}", exchange.getStatusCode());
 
-            if (!exchange.getStatusCode().is2xxSuccessful()) {
-                log.error("something went wrong sending ingestionRequestDTO over http! status: {}", exchange.getStatusCode());
+        }
+    }
 
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    private void writeGzipped(final OutputStream body, final IngestionRequestDTO ingestionRequestDTO) throws IOException {
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(StreamUtils.nonClosing(body))) {
+            objectMapper.writeValue(gzipOutputStream, ingestionRequestDTO);
         }
     }
 
@@ -6,14 +6,19 @@ import com.yolt.providers.web.service.dto.IngestionAccountDTO;
 import com.yolt.providers.web.service.dto.IngestionRequestDTO;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.ClientUserToken;
+import nl.ing.lovebird.providerdomain.ProviderTransactionDTO;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static nl.ing.lovebird.clienttokens.constants.ClientTokenConstants.CLIENT_TOKEN_HEADER_NAME;
 
@@ -21,18 +26,41 @@ import static nl.ing.lovebird.clienttokens.constants.ClientTokenConstants.CLIENT
 @Service
 public class AccountsProducer {
 
-    private static final Integer MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE = 5_000;
+    static final int MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE = 5_000;
+
+    /**
+     * Shared by all chunks of one ingestion request (and its completion marker).
+     */
+    public static final String INGESTION_CHUNK_GROUP_ID_HEADER = "ingestion-chunk-group-id";
+    /**
+     * Zero based position of the chunk within its group. The completion marker comes after the last chunk.
+     */
+    public static final String INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER = "ingestion-chunk-sequence-number";
+    /**
+     * Only set on the completion marker: the number of chunks that were sent before it.
+     */
+    public static final String INGESTION_CHUNK_COUNT_HEADER = "ingestion-chunk-count";
+    /**
+     * Set on the chunks and on the completion marker, consumers skip the message types that they do not know. A
+     * message without it is a complete ingestion request.
+     */
+    public static final String MESSAGE_TYPE_HEADER = "message_type";
+    public static final String INGESTION_REQUEST_CHUNK_MESSAGE_TYPE = "INGESTION_REQUEST_CHUNK";
+    public static final String INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE = "INGESTION_REQUEST_CHUNKS_COMPLETED";
 
     private final String accountAndTransactionsTopic;
     private final PayloadSizeMonitoredKafkaTemplateWrapper<String, IngestionRequestDTO> payloadSizeMonitoredKafkaTemplateWrapper;
     private final AccountsAndTransactionsClient accountsAndTransactionsClient;
+    private final boolean chunkedPublishingEnabled;
 
     public AccountsProducer(@Value("${yolt.kafka.topics.ingestion-requests.topic-name}") String accountAndTransactionsTopic,
                             final PayloadSizeMonitoredKafkaTemplateWrapper<String, IngestionRequestDTO> payloadSizeMonitoredKafkaTemplateWrapper,
-                            final AccountsAndTransactionsClient accountsAndTransactionsClient) {
+                            final AccountsAndTransactionsClient accountsAndTransactionsClient,
+                            @Value("${yolt.providers.ingestion.chunked-publishing-enabled:false}") final boolean chunkedPublishingEnabled) {
         this.accountAndTransactionsTopic = accountAndTransactionsTopic;
         this.payloadSizeMonitoredKafkaTemplateWrapper = payloadSizeMonitoredKafkaTemplateWrapper;
         this.accountsAndTransactionsClient = accountsAndTransactionsClient;
+        this.chunkedPublishingEnabled = chunkedPublishingEnabled;
     }
 
     public void publishAccountAndTransactions(
@@ -51,6 +79,10 @@ public class AccountsProducer {
                 .build();
 
         long count = ingestionAccountDTOs.stream().mapToInt(it -> it.getTransactions().size()).sum();
+        if (count > MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE && chunkedPublishingEnabled) {
+            publishInChunks(ingestionRequestDTO, clientUserToken, provider);
+            return;
+        }
         if (count > MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE) {
             // See YTRN-1313. On kafka  we can only push 10Mb of data. The limit is 10Mb data in it's uncompressed form (even though we do zip it).
             // See https://issues.apache.org/jira/browse/KAFKA-4169 or org.apache.kafka.clients.producer.KafkaProducer#ensureValidRecordSize
@@ -59,19 +91,112 @@ public class AccountsProducer {
             // us to numerate the accounts by index, and paginate the transactions with a reference to the numeral index of that account.
             // Because this happens very little (add-banks of customers with a lot of data), we chose to push it over HTTPS. Note that this
             // 'fallback' over https comes with a slight degradation of resilience as the uptime of A&T is required to send this data.
+            // With yolt.providers.ingestion.chunked-publishing-enabled the data is paginated on kafka instead, see publishInChunks.
             log.info("Posting {} accounts and transactions over HTTP. Kafka threshold is set to {} transactions.", count, MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE);
             accountsAndTransactionsClient.postProviderAccounts(clientUserToken, ingestionRequestDTO);
             return;
         }
 
-        Message<IngestionRequestDTO> message = MessageBuilder
-                .withPayload(ingestionRequestDTO)
-                .setHeader(KafkaHeaders.TOPIC, accountAndTransactionsTopic)
-                .setHeader(KafkaHeaders.MESSAGE_KEY, clientUserToken.getUserIdClaim().toString())
-                .setHeader(CLIENT_TOKEN_HEADER_NAME, clientUserToken.getSerialized())
-                .build();
+        Message<IngestionRequestDTO> message = messageBuilder(ingestionRequestDTO, clientUserToken).build();
 
         payloadSizeMonitoredKafkaTemplateWrapper.send(message,
                 KafkaMessageMetricsContext.from(accountAndTransactionsTopic, clientUserToken.getClientIdClaim().toString(), provider));
     }
+
+    /**
+     * Sends the ingestion request as several messages that each stay below the Kafka message size limit, followed by a
+     * completion marker without accounts. All messages have the user id as key, so they end up on the same partition
+     * in the order in which they were sent.
+     * <p>
+     * The completion marker is only sent once every chunk is acknowledged by the broker. If a chunk or the marker can
+     * not be sent, the group is not completed and the whole ingestion request is posted over HTTP instead.
+     */
+    private void publishInChunks(final IngestionRequestDTO ingestionRequestDTO,
+                                 final ClientUserToken clientUserToken,
+                                 final String provider) {
+        List<List<IngestionAccountDTO>> chunks = splitInChunks(ingestionRequestDTO.getIngestionAccounts(), MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE);
+        String chunkGroupId = UUID.randomUUID().toString();
+        KafkaMessageMetricsContext metricsContext = KafkaMessageMetricsContext.from(accountAndTransactionsTopic, clientUserToken.getClientIdClaim().toString(), provider);
+        log.info("Publishing accounts and transactions in {} chunks. Kafka threshold is set to {} transactions.", chunks.size(), MAX_TRANSACTIONS_FOR_SINGLE_MESSAGE);
+
+        try {
+            List<CompletableFuture<?>> sentChunks = new ArrayList<>();
+            for (int sequenceNumber = 0; sequenceNumber < chunks.size(); sequenceNumber++) {
+                IngestionRequestDTO chunk = copyWithAccounts(ingestionRequestDTO, chunks.get(sequenceNumber));
+                Message<IngestionRequestDTO> message = messageBuilder(chunk, clientUserToken)
+                        .setHeader(MESSAGE_TYPE_HEADER, INGESTION_REQUEST_CHUNK_MESSAGE_TYPE)
+                        .setHeader(INGESTION_CHUNK_GROUP_ID_HEADER, chunkGroupId)
+                        .setHeader(INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER, String.valueOf(sequenceNumber))
+                        .build();
+                sentChunks.add(payloadSizeMonitoredKafkaTemplateWrapper.send(message, metricsContext).completable());
+            }
+            // Bounded by the delivery.timeout.ms of the producer.
+            CompletableFuture.allOf(sentChunks.toArray(CompletableFuture[]::new)).join();
+
+            Message<IngestionRequestDTO> completionMarker = messageBuilder(copyWithAccounts(ingestionRequestDTO, List.of()), clientUserToken)
+                    .setHeader(MESSAGE_TYPE_HEADER, INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE)
+                    .setHeader(INGESTION_CHUNK_GROUP_ID_HEADER, chunkGroupId)
+                    .setHeader(INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER, String.valueOf(chunks.size()))
+                    .setHeader(INGESTION_CHUNK_COUNT_HEADER, String.valueOf(chunks.size()))
+                    .build();
+            payloadSizeMonitoredKafkaTemplateWrapper.send(completionMarker, metricsContext).completable().join();
+        } catch (KafkaException | CompletionException e) {
+            log.warn("Failed to publish accounts and transactions in chunks, posting them over HTTP instead.", e);
+            accountsAndTransactionsClient.postProviderAccounts(clientUserToken, ingestionRequestDTO);
+        }
+    }
+
+    /**
+     * Packs whole accounts together as long as the chunk stays within maxTransactions. An account with more
+     * transactions than that is split into windows of maxTransactions transactions, each window is sent as a copy of
+     * the account in a chunk of its own. The order of the accounts and of their transactions is kept.
+     */
+    static List<List<IngestionAccountDTO>> splitInChunks(final List<IngestionAccountDTO> accounts, final int maxTransactions) {
+        List<List<IngestionAccountDTO>> chunks = new ArrayList<>();
+        List<IngestionAccountDTO> currentChunk = new ArrayList<>();
+        int currentChunkTransactions = 0;
+        for (IngestionAccountDTO account : accounts) {
+            List<ProviderTransactionDTO> transactions = account.getTransactions() == null ? List.of() : account.getTransactions();
+            if (currentChunkTransactions + transactions.size() > maxTransactions && !currentChunk.isEmpty()) {
+                chunks.add(currentChunk);
+                currentChunk = new ArrayList<>();
+                currentChunkTransactions = 0;
+            }
+            if (transactions.size() <= maxTransactions) {
+                currentChunk.add(account);
+                currentChunkTransactions += transactions.size();
+                continue;
+            }
+            for (int from = 0; from < transactions.size(); from += maxTransactions) {
+                List<ProviderTransactionDTO> window = transactions.subList(from, Math.min(from + maxTransactions, transactions.size()));
+                chunks.add(List.of(copyWithTransactions(account, window)));
+            }
+        }
+        if (!currentChunk.isEmpty()) {
+            chunks.add(currentChunk);
+        }
+        return chunks;
+    }
+
+    private static IngestionAccountDTO copyWithTransactions(final IngestionAccountDTO account, final List<ProviderTransactionDTO> transactions) {
+        return new IngestionAccountDTO(account.getYoltUserId(), account.getYoltUserSiteId(), account.getYoltSiteId(), account.getProvider(),
+                account.toBuilder().transactions(new ArrayList<>(transactions)).build());
+    }
+
+    private static IngestionRequestDTO copyWithAccounts(final IngestionRequestDTO ingestionRequestDTO, final List<IngestionAccountDTO> accounts) {
+        return IngestionRequestDTO.builder()
+                .activityId(ingestionRequestDTO.getActivityId())
+                .userSiteId(ingestionRequestDTO.getUserSiteId())
+                .siteId(ingestionRequestDTO.getSiteId())
+                .ingestionAccounts(accounts)
+                .build();
+    }
+
+    private MessageBuilder<IngestionRequestDTO> messageBuilder(final IngestionRequestDTO ingestionRequestDTO, final ClientUserToken clientUserToken) {
+        return MessageBuilder
+                .withPayload(ingestionRequestDTO)
+                .setHeader(KafkaHeaders.TOPIC, accountAndTransactionsTopic)
+                .setHeader(KafkaHeaders.MESSAGE_KEY, clientUserToken.getUserIdClaim().toString())
+                .setHeader(CLIENT_TOKEN_HEADER_NAME, clientUserToken.getSerialized());
+    }
 }
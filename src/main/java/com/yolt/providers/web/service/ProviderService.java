@@ -27,6 +27,7 @@ import nl.ing.lovebird.providershared.AccessMeansDTO;
 import nl.ing.lovebird.providershared.ProviderServiceResponseStatus;
 import org.slf4j.MDC;
 import org.slf4j.Marker;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
@@ -36,9 +37,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import static com.yolt.providers.web.configuration.ApplicationConfiguration.ASYNC_PROVIDER_FETCH_DATA_EXECUTOR;
+import static com.yolt.providers.web.configuration.ApplicationConfiguration.FETCH_DATA_RESULT_PUBLISHER_EXECUTOR;
 import static com.yolt.providers.web.service.ProviderVersioningUtil.getVersionType;
 import static com.yolt.providers.web.service.configuration.VersionType.EXPERIMENTAL;
 import static com.yolt.providers.web.service.configuration.VersionType.STABLE;
@@ -64,6 +68,7 @@ public class ProviderService {
     private final ProviderVaultKeys vaultKeys;
     private final CircuitBreakerAisService circuitBreakerAisService;
     private final SiteDetailsService siteDetailsService;
+    private final Executor fetchDataResultPublisherExecutor;
 
     private static final Marker HAPPY_FLOW_MARKER = append("happy-flow", "true");
     private static final String FAULTY_KEEBO_REDIRECT_URL_PART = "https://mobile.keebo.com/";
@@ -81,7 +86,8 @@ public class ProviderService {
                            final AccountsProducer accountsProducer,
                            final ProviderVaultKeys vaultKeys,
                            final CircuitBreakerAisService circuitBreakerAisService,
-                           final SiteDetailsService siteDetailsService) {
+                           final SiteDetailsService siteDetailsService,
+                           @Qualifier(FETCH_DATA_RESULT_PUBLISHER_EXECUTOR) final Executor fetchDataResultPublisherExecutor) {
         this.providerFactoryService = providerFactoryService;
         this.clientAuthenticationMeansService = clientAuthenticationMeansService;
         this.transactionsDataLimiter = transactionsDataLimiter;
@@ -94,6 +100,7 @@ public class ProviderService {
         this.vaultKeys = vaultKeys;
         this.circuitBreakerAisService = circuitBreakerAisService;
         this.siteDetailsService = siteDetailsService;
+        this.fetchDataResultPublisherExecutor = fetchDataResultPublisherExecutor;
     }
 
     public AccessMeansDTO refreshAccessMeans(final String provider,
@@ -186,7 +193,9 @@ public class ProviderService {
                 apiFetchDataDTO.getPsuIpAddress()
         );
 
-        ProviderServiceResponseDTO providerServiceResponseDTO = circuitBreakerAisService.fetchDataAsync(
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        // This thread is released as soon as the call is handed over, the result is published on a pool of its own.
+        circuitBreakerAisService.fetchDataAsync(
                 clientUserToken,
                 siteId,
                 provider,
@@ -198,16 +207,35 @@ public class ProviderService {
                 transactionsDataLimiter,
                 accountsPostProcessingService,
                 providerRequestId
-        );
-
-        sendProviderServiceResponse(
-                userSiteId,
-                providerServiceResponseDTO,
-                clientUserToken,
-                apiFetchDataDTO.getActivityId(),
-                provider,
-                siteId
-        );
+        ).thenAcceptAsync(providerServiceResponseDTO -> {
+            Map<String, String> previousMdcContext = MDC.getCopyOfContextMap();
+            try {
+                if (mdcContext != null) {
+                    MDC.setContextMap(mdcContext);
+                }
+                sendProviderServiceResponse(
+                        userSiteId,
+                        providerServiceResponseDTO,
+                        clientUserToken,
+                        apiFetchDataDTO.getActivityId(),
+                        provider,
+                        siteId
+                );
+            } finally {
+                if (previousMdcContext != null) {
+                    MDC.setContextMap(previousMdcContext);
+                } else {
+                    MDC.clear();
+                }
+            }
+        }).exceptionally(throwable -> {
+            if (throwable.getCause() instanceof RejectedExecutionException) {
+                log.error("Dropped the fetch data result of provider {}, the publisher is full.", provider);
+            } else {
+                log.error("Failed to publish the fetch data result of provider {}.", provider, throwable);
+            }
+            return null;
+        });
     }
 
     private void sendProviderServiceResponse(final UUID userSiteId,
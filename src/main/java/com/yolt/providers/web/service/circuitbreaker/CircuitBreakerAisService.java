@@ -1,6 +1,5 @@
 package com.yolt.providers.web.service.circuitbreaker;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yolt.providers.common.ais.DataProviderResponse;
 import com.yolt.providers.common.ais.url.*;
@@ -38,6 +37,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -46,6 +47,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -68,6 +70,8 @@ public class CircuitBreakerAisService {
 
     private static final Pattern NL_IBAN_REGEX = Pattern.compile("/(nl|NL[0-9]{2}[a-zA-Z]{4}[0-9]{10})/");
 
+    private static final int MAX_RDD_RESPONSE_LENGTH = 1024 * 1024;
+
     private static final String BASIC_FETCHING_ERROR_MESSAGE_FORMAT = "Exception while provider {} is fetching accounts and transactions: {}";
 
     public CircuitBreakerAisService(ProvidersCircuitBreakerFactory circuitBreakerFactory, Clock clock, @Qualifier(OBJECT_MAPPER) ObjectMapper objectMapper) {
@@ -171,20 +175,24 @@ public class CircuitBreakerAisService {
         return true;
     }
 
-    public ProviderServiceResponseDTO fetchDataAsync(final ClientUserToken clientUserToken,
-                                                     final UUID siteId,
-                                                     final String provider,
-                                                     final UUID redirectUrlId,
-                                                     final UrlDataProvider dataProvider,
-                                                     final UrlFetchDataRequest urlFetchData,
-                                                     final ApiFetchDataDTO apiFetchDataDTO,
-                                                     final AccountsFilterService accountsFilterService,
-                                                     final TransactionsDataLimiter transactionsDataLimiter,
-                                                     final AccountsPostProcessingService accountsPostProcessingService,
-                                                     final UUID providerRequestId) {
+    /**
+     * Does not block the calling thread while the bank is called. The returned stage always completes normally, with
+     * an {@link ProviderServiceResponseStatus#UNKNOWN_ERROR} response if the call failed.
+     */
+    public CompletionStage<ProviderServiceResponseDTO> fetchDataAsync(final ClientUserToken clientUserToken,
+                                                                      final UUID siteId,
+                                                                      final String provider,
+                                                                      final UUID redirectUrlId,
+                                                                      final UrlDataProvider dataProvider,
+                                                                      final UrlFetchDataRequest urlFetchData,
+                                                                      final ApiFetchDataDTO apiFetchDataDTO,
+                                                                      final AccountsFilterService accountsFilterService,
+                                                                      final TransactionsDataLimiter transactionsDataLimiter,
+                                                                      final AccountsPostProcessingService accountsPostProcessingService,
+                                                                      final UUID providerRequestId) {
         Map<String, String> mdcContext = getContextMapOrEmpty();
         ProvidersCircuitBreaker circuitBreaker = circuitBreakerFactory.create(clientUserToken, siteId, provider, AIS_FETCH_DATA, redirectUrlId);
-        return circuitBreaker.run(() -> {
+        return circuitBreaker.runAsync(() -> {
                     try {
                         MDC.setContextMap(mdcContext);
                         MDC.put(REQUEST_RESPONSE_DTO_BINDING_CALL_ID, String.valueOf(UUID.randomUUID()));
@@ -241,11 +249,24 @@ public class CircuitBreakerAisService {
         Marker responseMarker = append("raw-data", "true")
                 .and(append("raw-data-type", MRDD))
                 .and(append("raw-data-call-id", MDC.get(REQUEST_RESPONSE_DTO_BINDING_CALL_ID))); //NOSHERIFF as indicated in C4PO-9255 (medium RDD) this should be used here
+        // A response can hold tens of thousands of transactions, so nothing is serialized when the line will not be logged.
+        if (!log.isDebugEnabled(responseMarker)) {
+            return;
+        }
 
+        TruncatingWriter writer = new TruncatingWriter(MAX_RDD_RESPONSE_LENGTH);
         try {
-            log.debug(responseMarker, " ProviderServiceResponseDTO: " + objectMapper.writeValueAsString(providerServiceResponseDTO));
-        } catch (JsonProcessingException e) {
-            log.debug(responseMarker, "Cannot write json response due to error: " + e.getMessage() + " ProviderServiceResponseDTO: " + providerServiceResponseDTO.toString());
+            objectMapper.writeValue(writer, providerServiceResponseDTO);
+        } catch (IOException e) {
+            if (!writer.isTruncated()) {
+                log.debug(responseMarker, "Cannot write json response due to error: " + e.getMessage() + " ProviderServiceResponseDTO: " + providerServiceResponseDTO.toString());
+                return;
+            }
+        }
+        if (writer.isTruncated()) {
+            log.debug(responseMarker, " ProviderServiceResponseDTO (truncated to " + MAX_RDD_RESPONSE_LENGTH + " characters): " + writer);
+        } else {
+            log.debug(responseMarker, " ProviderServiceResponseDTO: " + writer);
         }
     }
 
@@ -347,4 +368,47 @@ public class CircuitBreakerAisService {
             throw new ProvidersCircuitBreakerException(e);
         }
     }
+
+    /**
+     * Collects the serialized response up to maxLength characters. Serialization is aborted as soon as the limit is
+     * reached, so a huge response is never fully written.
+     */
+    private static class TruncatingWriter extends Writer {
+
+        private final StringBuilder value = new StringBuilder();
+        private final int maxLength;
+        private boolean truncated;
+
+        TruncatingWriter(final int maxLength) {
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(final char[] chars, final int offset, final int length) throws IOException {
+            int remaining = maxLength - value.length();
+            if (length > remaining) {
+                value.append(chars, offset, remaining);
+                truncated = true;
+                throw new IOException("Maximum length of " + maxLength + " characters reached");
+            }
+            value.append(chars, offset, length);
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return value.toString();
+        }
+    }
 }
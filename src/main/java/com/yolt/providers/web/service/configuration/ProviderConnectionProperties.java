@@ -4,6 +4,12 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 @Component
 @Data
 @ConfigurationProperties(prefix = "yolt.providers.connection")
@@ -15,4 +21,56 @@ public class ProviderConnectionProperties {
     int requestTimeoutInMillis;
     int connectTimeoutInMillis;
     int socketTimeoutInMillis;
+    long evictionIntervalInMillis;
+    long idleConnectionTimeoutInMillis;
+    long retiredPoolGracePeriodInMillis;
+    long sslContextCacheMaximumSize;
+    long sslContextCacheExpireAfterAccessInSeconds;
+    int tlsSessionCacheSize;
+    int tlsSessionTimeoutInSeconds;
+    Set<String> http2Providers = new HashSet<>();
+    AdaptiveMaxPerRoute adaptiveMaxPerRoute = new AdaptiveMaxPerRoute();
+    Map<String, PoolOverride> poolOverrides = new HashMap<>();
+
+    public int getMaxTotal(final String providerKey) {
+        return Optional.ofNullable(poolOverrides.get(providerKey))
+                .map(PoolOverride::getMaxTotal)
+                .orElse(maxTotal);
+    }
+
+    public int getMaxPerRoute(final String providerKey) {
+        return Optional.ofNullable(poolOverrides.get(providerKey))
+                .map(PoolOverride::getMaxPerRoute)
+                .orElse(maxPerRoute);
+    }
+
+    public boolean isAdaptiveMaxPerRouteEnabled(final String providerKey) {
+        return Optional.ofNullable(poolOverrides.get(providerKey))
+                .map(PoolOverride::getAdaptiveMaxPerRoute)
+                .orElse(adaptiveMaxPerRoute.isEnabled());
+    }
+
+    /**
+     * Pool sizing of a single provider, unset values fall back to the defaults above.
+     */
+    @Data
+    public static class PoolOverride {
+
+        Integer maxTotal;
+        Integer maxPerRoute;
+        Boolean adaptiveMaxPerRoute;
+    }
+
+    /**
+     * The limit of a route is doubled while requests waited longer than the threshold for a connection on average, and
+     * halved when the route was not used since the previous adjustment. It stays between min and max.
+     */
+    @Data
+    public static class AdaptiveMaxPerRoute {
+
+        boolean enabled;
+        int min;
+        int max;
+        long leaseWaitThresholdInMillis;
+    }
 }
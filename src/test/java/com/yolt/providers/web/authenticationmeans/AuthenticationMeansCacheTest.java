@@ -0,0 +1,151 @@
+package com.yolt.providers.web.authenticationmeans;
+
+import com.yolt.providers.common.domain.authenticationmeans.BasicAuthenticationMean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.ing.lovebird.providerdomain.ServiceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.yolt.providers.common.domain.authenticationmeans.TypedAuthenticationMeans.AUDIENCE_STRING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthenticationMeansCacheTest {
+
+    private static final UUID CLIENT_ID = UUID.randomUUID();
+    private static final UUID CLIENT_GROUP_ID = UUID.randomUUID();
+    private static final UUID REDIRECT_URL_ID = UUID.randomUUID();
+    private static final String PROVIDER = "STARLINGBANK";
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Optional<Map<String, BasicAuthenticationMean>>> loader = () -> {
+        loads.incrementAndGet();
+        return Optional.of(Map.of("audience", new BasicAuthenticationMean(AUDIENCE_STRING.getType(), "audience-value")));
+    };
+
+    private AuthenticationMeansCache cache;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void shouldLoadAuthenticationMeansOnlyOnceForSubsequentGets() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClient(CLIENT_ID, REDIRECT_URL_ID, ServiceType.AIS, PROVIDER);
+
+        // when
+        Optional<Map<String, BasicAuthenticationMean>> first = cache.get(key, loader);
+        Optional<Map<String, BasicAuthenticationMean>> second = cache.get(key, loader);
+
+        // then
+        assertThat(loads).hasValue(1);
+        assertThat(first).isEqualTo(second);
+        assertThat(second.get().get("audience").getValue()).isEqualTo("audience-value");
+    }
+
+    @Test
+    void shouldReturnCopyThatCanBeModifiedWithoutAffectingCachedValue() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClient(CLIENT_ID, REDIRECT_URL_ID, ServiceType.AIS, PROVIDER);
+
+        // when
+        cache.get(key, loader).get().clear();
+
+        // then
+        assertThat(cache.get(key, loader).get()).hasSize(1);
+    }
+
+    @Test
+    void shouldNotCacheAbsentAuthenticationMeans() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClientGroup(CLIENT_GROUP_ID, REDIRECT_URL_ID, ServiceType.PIS, PROVIDER);
+        cache.get(key, Optional::empty);
+
+        // when
+        Optional<Map<String, BasicAuthenticationMean>> result = cache.get(key, loader);
+
+        // then
+        assertThat(result).isPresent();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldReloadAuthenticationMeansAfterEviction() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClientGroup(CLIENT_GROUP_ID, REDIRECT_URL_ID, ServiceType.AIS, PROVIDER);
+        cache.get(key, loader);
+
+        // when
+        cache.evict(key);
+        cache.get(key, loader);
+
+        // then
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictAllEntriesOfClientAndProviderForEvictClient() {
+        // given
+        AuthenticationMeansCache.Key redirectUrlKey = AuthenticationMeansCache.Key.forClient(CLIENT_ID, REDIRECT_URL_ID, ServiceType.AIS, PROVIDER);
+        AuthenticationMeansCache.Key scrapingKey = AuthenticationMeansCache.Key.forScraping(CLIENT_ID, PROVIDER);
+        AuthenticationMeansCache.Key otherProviderKey = AuthenticationMeansCache.Key.forClient(CLIENT_ID, REDIRECT_URL_ID, ServiceType.AIS, "OTHER_PROVIDER");
+        cache.get(redirectUrlKey, loader);
+        cache.get(scrapingKey, loader);
+        cache.get(otherProviderKey, loader);
+
+        // when
+        cache.evictClient(CLIENT_ID, PROVIDER);
+        cache.get(redirectUrlKey, loader);
+        cache.get(scrapingKey, loader);
+        cache.get(otherProviderKey, loader);
+
+        // then
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void shouldNotReturnValueOfLoadThatWasInFlightDuringEvictClient() throws Exception {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClient(CLIENT_ID, REDIRECT_URL_ID, ServiceType.AIS, PROVIDER);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch clientEvicted = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<Optional<Map<String, BasicAuthenticationMean>>> staleGet = executorService.submit(() -> cache.get(key, () -> {
+            loadStarted.countDown();
+            awaitUninterruptibly(clientEvicted);
+            return Optional.of(Map.of("audience", new BasicAuthenticationMean(AUDIENCE_STRING.getType(), "stale-value")));
+        }));
+        loadStarted.await();
+
+        // when
+        cache.evictClient(CLIENT_ID, PROVIDER);
+        clientEvicted.countDown();
+        staleGet.get(5, TimeUnit.SECONDS);
+        Optional<Map<String, BasicAuthenticationMean>> result = cache.get(key, loader);
+        executorService.shutdown();
+
+        // then
+        assertThat(result.get().get("audience").getValue()).isEqualTo("audience-value");
+        assertThat(loads).hasValue(1);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.yolt.providers.web.encryption.AesEncryptionUtil;
 import com.yolt.providers.web.service.ProviderFactoryService;
 import com.yolt.providers.web.service.ProviderVaultKeys;
 import com.yolt.providers.web.service.configuration.VersionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.clienttokens.ClientToken;
 import nl.ing.lovebird.providerdomain.ServiceType;
 import nl.ing.lovebird.providerdomain.TokenScope;
@@ -111,7 +112,8 @@ class AuthenticationMeansHelperServiceIntegrationTest {
                 restTemplateManagerCache,
                 clientAuthenticationMeansCertificateVerifierService,
                 authenticationMeansEncryptionService,
-                authenticationMeansMapperService);
+                authenticationMeansMapperService,
+                new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry()));
     }
 
     @Test
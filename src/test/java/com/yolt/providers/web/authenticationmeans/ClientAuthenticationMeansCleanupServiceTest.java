@@ -13,6 +13,7 @@ import com.yolt.providers.web.configuration.TestConfiguration;
 import com.yolt.providers.web.encryption.AesEncryptionUtil;
 import com.yolt.providers.web.service.ProviderFactoryService;
 import com.yolt.providers.web.service.ProviderVaultKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.clienttokens.ClientToken;
 import nl.ing.lovebird.providerdomain.ServiceType;
 import org.junit.jupiter.api.BeforeAll;
@@ -93,7 +94,8 @@ public class ClientAuthenticationMeansCleanupServiceTest {
         authenticationMeansEncryptionService = new AuthenticationMeansEncryptionService(vaultKeys, objectMapper);
         authenticationMeansMapperService = new AuthenticationMeansMapperService(clock, authenticationMeansEncryptionService);
         subject = new ClientAuthenticationMeansCleanupService(clock, providerFactory, clientRedirectUrlClientConfigurationRepository,
-                meansEventDispatcherService, clientAuthenticationMeansRepository, authenticationMeansEncryptionService, authenticationMeansMapperService);
+                meansEventDispatcherService, clientAuthenticationMeansRepository, authenticationMeansEncryptionService, authenticationMeansMapperService,
+                new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry()));
     }
 
     @Test
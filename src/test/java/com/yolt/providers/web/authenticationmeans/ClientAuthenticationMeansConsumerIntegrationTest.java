@@ -0,0 +1,93 @@
+package com.yolt.providers.web.authenticationmeans;
+
+import com.yolt.providers.common.domain.authenticationmeans.BasicAuthenticationMean;
+import com.yolt.providers.web.configuration.IntegrationTestContext;
+import nl.ing.lovebird.providerdomain.ServiceType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.yolt.providers.common.domain.authenticationmeans.TypedAuthenticationMeans.AUDIENCE_STRING;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+
+@IntegrationTestContext
+class ClientAuthenticationMeansConsumerIntegrationTest {
+
+    private static final String PROVIDER = "BUDGET_INSIGHT";
+
+    private final UUID clientId = UUID.randomUUID();
+    private final UUID clientGroupId = UUID.randomUUID();
+    private final UUID redirectUrlId = UUID.randomUUID();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Supplier<Optional<Map<String, BasicAuthenticationMean>>> loader = () -> {
+        loads.incrementAndGet();
+        return Optional.of(Map.of("audience", new BasicAuthenticationMean(AUDIENCE_STRING.getType(), "audience-value")));
+    };
+
+    @Autowired
+    private AuthenticationMeansCache authenticationMeansCache;
+
+    @Autowired
+    private KafkaTemplate<String, ClientAuthenticationMeansDTO> kafkaTemplate;
+
+    @Value("${yolt.kafka.topics.clientAuthenticationMeans.topic-name}")
+    private String topic;
+
+    @Test
+    void shouldEvictCachedClientAuthenticationMeansForClientAuthenticationMeansUpdatedEvent() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClient(clientId, redirectUrlId, ServiceType.AIS, PROVIDER);
+        authenticationMeansCache.get(key, loader);
+        Message<ClientAuthenticationMeansDTO> message = createMessage(
+                new ClientAuthenticationMeansDTO(null, clientId, PROVIDER, ServiceType.AIS, redirectUrlId),
+                ClientAuthenticationMeansMessageType.CLIENT_AUTHENTICATION_MEANS_UPDATED);
+
+        // when
+        // then
+        // The listener starts at the latest offset, so the event is resent until the listener has been assigned.
+        await().atMost(30, SECONDS).pollInterval(1, SECONDS).until(() -> {
+            kafkaTemplate.send(message);
+            authenticationMeansCache.get(key, loader);
+            return loads.get() > 1;
+        });
+    }
+
+    @Test
+    void shouldEvictCachedClientGroupAuthenticationMeansForClientGroupAuthenticationMeansDeletedEvent() {
+        // given
+        AuthenticationMeansCache.Key key = AuthenticationMeansCache.Key.forClientGroup(clientGroupId, redirectUrlId, ServiceType.PIS, PROVIDER);
+        authenticationMeansCache.get(key, loader);
+        Message<ClientAuthenticationMeansDTO> message = createMessage(
+                new ClientAuthenticationMeansDTO(clientGroupId, clientGroupId, PROVIDER, ServiceType.PIS, redirectUrlId),
+                ClientAuthenticationMeansMessageType.CLIENT_GROUP_AUTHENTICATION_MEANS_DELETED);
+
+        // when
+        // then
+        await().atMost(30, SECONDS).pollInterval(1, SECONDS).until(() -> {
+            kafkaTemplate.send(message);
+            authenticationMeansCache.get(key, loader);
+            return loads.get() > 1;
+        });
+    }
+
+    private Message<ClientAuthenticationMeansDTO> createMessage(final ClientAuthenticationMeansDTO dto,
+                                                                final ClientAuthenticationMeansMessageType type) {
+        return MessageBuilder
+                .withPayload(dto)
+                .setHeader(KafkaHeaders.TOPIC, topic)
+                .setHeader(KafkaHeaders.MESSAGE_KEY, dto.getClientId().toString())
+                .setHeader("payload-type", type.toString())
+                .build();
+    }
+}
@@ -13,6 +13,7 @@ import com.yolt.providers.web.cryptography.transport.MutualTLSRestTemplateManage
 import com.yolt.providers.web.service.ProviderFactoryService;
 import com.yolt.providers.web.service.ProviderVaultKeys;
 import com.yolt.providers.web.service.configuration.VersionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.clienttokens.ClientGroupToken;
 import nl.ing.lovebird.clienttokens.ClientToken;
 import nl.ing.lovebird.providerdomain.ServiceType;
@@ -104,7 +105,8 @@ class ClientAuthenticationMeansConsumerServiceIntegrationTest {
                 restTemplateManagerCache,
                 clientAuthenticationMeansCertificateVerifierService,
                 authenticationMeansEncryptionService,
-                authenticationMeansMapperService);
+                authenticationMeansMapperService,
+                new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry()));
         when(providerFactoryService.getStableProviders(BUDGET_INSIGHT_NAME)).thenReturn(singletonList(urlDataProvider));
         when(providerFactoryService.getProvider(eq(BUDGET_INSIGHT_NAME), eq(Provider.class), eq(ServiceType.AIS), any(VersionType.class))).thenReturn(urlDataProvider);
         Map<String, TypedAuthenticationMeans> typedAuthenticationMeans = new HashMap<>();
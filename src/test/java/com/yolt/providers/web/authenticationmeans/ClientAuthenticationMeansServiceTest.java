@@ -28,6 +28,7 @@ import com.yolt.providers.web.exception.ProviderNotFoundException;
 import com.yolt.providers.web.service.ProviderFactoryService;
 import com.yolt.providers.web.service.ProviderVaultKeys;
 import com.yolt.providers.web.service.configuration.VersionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.ClientGroupToken;
 import nl.ing.lovebird.clienttokens.ClientToken;
@@ -154,7 +155,8 @@ class ClientAuthenticationMeansServiceTest {
                 restTemplateManagerCache,
                 new ClientAuthenticationMeansCertificateVerifierService(Clock.systemUTC(), providerFactoryService, loggingProperties),
                 authenticationMeansEncryptionService,
-                authenticationMeansMapperService);
+                authenticationMeansMapperService,
+                new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry()));
         when(CLIENT_TOKEN.getClientIdClaim()).thenReturn(CLIENT_ID);
         when(CLIENT_GROUP_TOKEN.getClientGroupIdClaim()).thenReturn(CLIENT_GROUP_ID);
         mockAppender = mock(Appender.class);
@@ -273,6 +275,34 @@ class ClientAuthenticationMeansServiceTest {
         assertThat(decryptedAuthenticationMean.getValue()).isEqualTo("any-value");
     }
 
+    @Test
+    void shouldReturnCachedAuthMeansForSubsequentAcquireAuthenticationMeansUntilAuthMeansAreUpdated() {
+        // given
+        when(vaultKeys.getAuthEncryptionKey()).thenReturn(ENCRYPTION_KEY);
+        when(providerFactoryService.getProvider(eq("STARLINGBANK"), eq(Provider.class), eq(ServiceType.AIS), any(VersionType.class))).thenReturn(urlDataProvider);
+        Map<String, TypedAuthenticationMeans> typedAuthenticationMeans = new HashMap<>();
+        typedAuthenticationMeans.put("audience", AUDIENCE_STRING);
+        when(urlDataProvider.getTypedAuthenticationMeans()).thenReturn(typedAuthenticationMeans);
+        service.saveProviderAuthenticationMeans(CLIENT_ID, PROV_AUTH_MEANS, SERVICE_TYPE);
+        ArgumentCaptor<InternalClientAuthenticationMeans> storedAuthMeans = ArgumentCaptor.forClass(InternalClientAuthenticationMeans.class);
+        verify(authMeansRepo).save(storedAuthMeans.capture());
+        when(authMeansRepo.get(CLIENT_ID, PROV_AUTH_MEANS.getProvider())).thenReturn(Optional.of(storedAuthMeans.getValue()));
+        AuthenticationMeansReference authenticationMeansReference = new AuthenticationMeansReference(CLIENT_ID, CLIENT_REDIRECT_URL_ID);
+
+        // when
+        Map<String, BasicAuthenticationMean> firstResult = service.acquireAuthenticationMeans(PROV_AUTH_MEANS.getProvider(), ServiceType.AIS, authenticationMeansReference);
+        firstResult.clear();
+        Map<String, BasicAuthenticationMean> secondResult = service.acquireAuthenticationMeans(PROV_AUTH_MEANS.getProvider(), ServiceType.AIS, authenticationMeansReference);
+        service.saveProviderAuthenticationMeans(CLIENT_ID, PROV_AUTH_MEANS, SERVICE_TYPE);
+        Map<String, BasicAuthenticationMean> resultAfterUpdate = service.acquireAuthenticationMeans(PROV_AUTH_MEANS.getProvider(), ServiceType.AIS, authenticationMeansReference);
+
+        // then
+        assertThat(secondResult).hasSize(1);
+        assertThat(secondResult.get("audience").getValue()).isEqualTo("any-value");
+        assertThat(resultAfterUpdate).hasSize(1);
+        verify(authMeansRedirectUrlRepo, times(2)).get(CLIENT_ID, CLIENT_REDIRECT_URL_ID, SERVICE_TYPE, PROV_AUTH_MEANS.getProvider());
+    }
+
     @Test
     void shouldReturnDecryptedAuthMeansWithMoreSpecificRedirectUrlForAcquireAuthenticationMeansWithCorrectData() {
         // given
@@ -522,9 +552,6 @@ class ClientAuthenticationMeansServiceTest {
         verify(authMeansRepo).save(storedAuthMeans.capture());
         when(authMeansRepo.get(CLIENT_ID, PROV_AUTH_MEANS.getProvider())).thenReturn(Optional.of(storedAuthMeans.getValue()));
 
-        Map<String, BasicAuthenticationMean> authenticationMeanMap = service.acquireAuthenticationMeans("STARLINGBANK", ServiceType.AIS, new AuthenticationMeansReference(CLIENT_ID, CLIENT_REDIRECT_URL_ID));
-        when(service.acquireAuthenticationMeans("STARLINGBANK", ServiceType.AIS, new AuthenticationMeansReference(CLIENT_ID, CLIENT_REDIRECT_URL_ID))).thenReturn(authenticationMeanMap);
-
         // when
         ThrowableAssert.ThrowingCallable importFromProviderAuthenticationMeansCallable = () -> service.importFromProviderAuthenticationMeans(new AuthenticationMeansReference(CLIENT_ID, CLIENT_REDIRECT_URL_ID), new AuthenticationMeansReference(null, null), "STARLINGBANK", "HALIFAX", SERVICE_TYPE, SERVICE_TYPE);
 
@@ -622,9 +649,6 @@ class ClientAuthenticationMeansServiceTest {
         when(authMeansRepo.get(CLIENT_ID, PROV_AUTH_MEANS.getProvider())).thenReturn(Optional.of(storedAuthMeans.getValue()));
 
         AuthenticationMeansReference authenticationMeansReference = new AuthenticationMeansReference(CLIENT_ID, CLIENT_REDIRECT_URL_ID);
-        Map<String, BasicAuthenticationMean> authenticationMeanMap = service.acquireAuthenticationMeans("STARLINGBANK", ServiceType.AIS, authenticationMeansReference);
-        when(service.acquireAuthenticationMeans("STARLINGBANK", ServiceType.AIS, authenticationMeansReference)).thenReturn(authenticationMeanMap);
-
         // when
 
         service.importFromProviderAuthenticationMeansToNonExistingProviderKey(authenticationMeansReference, new AuthenticationMeansReference(null, null), "STARLINGBANK", ANY_PROVIDER_KEY, SERVICE_TYPE, SERVICE_TYPE);
@@ -13,6 +13,7 @@ import com.yolt.providers.web.configuration.TestConfiguration;
 import com.yolt.providers.web.encryption.AesEncryptionUtil;
 import com.yolt.providers.web.service.ProviderFactoryService;
 import com.yolt.providers.web.service.ProviderVaultKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.clienttokens.ClientGroupToken;
 import nl.ing.lovebird.providerdomain.ServiceType;
 import org.junit.jupiter.api.BeforeAll;
@@ -90,7 +91,8 @@ public class ClientGroupAuthenticationMeansCleanupServiceTest {
         authenticationMeansEncryptionService = new AuthenticationMeansEncryptionService(vaultKeys, objectMapper);
         authenticationMeansMapperService = new AuthenticationMeansMapperService(clock, authenticationMeansEncryptionService);
         subject = new ClientGroupAuthenticationMeansCleanupService(clock, providerFactory, clientGroupRedirectUrlClientConfigurationRepository,
-                meansEventDispatcherService, authenticationMeansEncryptionService, authenticationMeansMapperService);
+                meansEventDispatcherService, authenticationMeansEncryptionService, authenticationMeansMapperService,
+                new AuthenticationMeansCache(new AuthenticationMeansCacheProperties(), new SimpleMeterRegistry()));
     }
 
     @Test
@@ -1,5 +1,7 @@
 package com.yolt.providers.web.circuitbreaker;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -19,4 +21,14 @@ public class ProvidersCircuitBreakerMock implements ProvidersCircuitBreaker {
             return fallback.apply(t);
         }
     }
+
+    @Override
+    public <T> CompletionStage<T> runAsync(Supplier<T> toRun, Function<Throwable, T> fallback) {
+        try {
+            return CompletableFuture.completedFuture(run(toRun, fallback));
+        }
+        catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package com.yolt.providers.web.circuitbreaker;
+
+import com.yolt.providers.web.sitedetails.sites.SiteDetailsService;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Map;
+import nl.ing.lovebird.clienttokens.ClientToken;
+import org.jose4j.jwt.JwtClaims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the per-call cost of resolving the circuit breaker, time limiter and bulkhead from the registries, as the
+ * factory used to do, with the cached circuit breakers of {@link Resilience4jCircuitBreakerFactory}. The registries hold
+ * the instances of the given number of redirect urls.
+ * <p>
+ * Run with the main method, for example from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Resilience4jCircuitBreakerFactoryBenchmark {
+
+    private static final String PROVIDER_KEY = "BENCHMARK_PROVIDER";
+    private static final ProvidersCircuitBreakerCommand COMMAND = ProvidersCircuitBreakerCommand.AIS_FETCH_DATA;
+
+    @Param({"10", "1000"})
+    private int redirectUrls;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private TimeLimiterRegistry timeLimiterRegistry;
+    private ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+    private ScheduledExecutorService timeLimiterScheduler;
+    private Resilience4jCircuitBreakerFactory factory;
+    private ClientToken clientToken;
+    private UUID siteId;
+    private UUID[] redirectUrlIds;
+
+    @Setup
+    public void setup() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        timeLimiterRegistry = TimeLimiterRegistry.ofDefaults();
+        threadPoolBulkheadRegistry = ThreadPoolBulkheadRegistry.ofDefaults();
+        timeLimiterScheduler = Executors.newSingleThreadScheduledExecutor();
+        factory = new Resilience4jCircuitBreakerFactory(
+                circuitBreakerRegistry,
+                timeLimiterRegistry,
+                threadPoolBulkheadRegistry,
+                mock(SiteDetailsService.class),
+                timeLimiterScheduler,
+                new CircuitBreakerProperties(),
+                new SimpleMeterRegistry(),
+                Clock.systemUTC());
+
+        JwtClaims jwtClaims = new JwtClaims();
+        jwtClaims.setClaim("client-id", UUID.randomUUID().toString());
+        jwtClaims.setClaim("psd2-licensed", true);
+        clientToken = new ClientToken(null, jwtClaims);
+        siteId = UUID.randomUUID();
+        redirectUrlIds = new UUID[redirectUrls];
+        for (int i = 0; i < redirectUrls; i++) {
+            redirectUrlIds[i] = UUID.randomUUID();
+            factory.create(clientToken, siteId, PROVIDER_KEY, COMMAND, redirectUrlIds[i]);
+            factory.create(clientToken, null, PROVIDER_KEY, COMMAND, redirectUrlIds[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        timeLimiterScheduler.shutdown();
+        threadPoolBulkheadRegistry.getAllBulkheads().forEach(bulkhead -> {
+            try {
+                bulkhead.close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public void registryLookup(Blackhole blackhole) {
+        UUID redirectUrlId = nextRedirectUrlId();
+        String providerName = PROVIDER_KEY.replace("_", "");
+        String name = providerName + "-" + redirectUrlId.toString() + "-" + COMMAND.getCommand();
+        Map<String, String> tags = HashMap.of(
+                "provider", PROVIDER_KEY,
+                "serviceType", COMMAND.getServiceType(),
+                "circuitBreakingGroupId", clientToken.getClientIdClaim().toString(),
+                "siteId", siteId.toString());
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, () -> circuitBreakerRegistry.getDefaultConfig(), tags);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(name, () -> timeLimiterRegistry.getDefaultConfig(), tags);
+        ThreadPoolBulkhead bulkhead = threadPoolBulkheadRegistry.bulkhead(name, () -> threadPoolBulkheadRegistry.getDefaultConfig(), tags);
+        blackhole.consume(circuitBreaker);
+        blackhole.consume(timeLimiter);
+        blackhole.consume(bulkhead);
+    }
+
+    @Benchmark
+    public ProvidersCircuitBreaker cachedCircuitBreaker() {
+        return factory.create(clientToken, siteId, PROVIDER_KEY, COMMAND, nextRedirectUrlId());
+    }
+
+    @Benchmark
+    public ProvidersCircuitBreaker cachedCircuitBreakerWithoutSiteId() {
+        return factory.create(clientToken, null, PROVIDER_KEY, COMMAND, nextRedirectUrlId());
+    }
+
+    private UUID nextRedirectUrlId() {
+        return redirectUrlIds[ThreadLocalRandom.current().nextInt(redirectUrls)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(Resilience4jCircuitBreakerFactoryBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,203 @@
+package com.yolt.providers.web.circuitbreaker;
+
+import com.yolt.providers.web.sitedetails.sites.SiteDetailsService;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetricsPublisher;
+import io.github.resilience4j.micrometer.tagged.TaggedThreadPoolBulkheadMetricsPublisher;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import nl.ing.lovebird.clienttokens.ClientToken;
+import org.jose4j.jwt.JwtClaims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class Resilience4jCircuitBreakerFactoryTest {
+
+    private static final String PROVIDER_KEY = "TEST_PROVIDER";
+    private static final long IDLE_TIMEOUT_IN_MILLIS = Duration.ofHours(1).toMillis();
+
+    @Mock
+    private SiteDetailsService siteDetailsService;
+
+    @Mock
+    private Clock clock;
+
+    private MeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private ThreadPoolBulkheadRegistry threadPoolBulkheadRegistry;
+    private ScheduledExecutorService timeLimiterScheduler;
+    private Resilience4jCircuitBreakerFactory factory;
+    private ClientToken clientToken;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.ofDefaults(), new TaggedCircuitBreakerMetricsPublisher(meterRegistry));
+        threadPoolBulkheadRegistry = ThreadPoolBulkheadRegistry.of(ThreadPoolBulkheadConfig.ofDefaults(), new TaggedThreadPoolBulkheadMetricsPublisher(meterRegistry));
+        timeLimiterScheduler = Executors.newSingleThreadScheduledExecutor();
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setIdleTimeout(Duration.ofMillis(IDLE_TIMEOUT_IN_MILLIS));
+        circuitBreakerProperties.setBulkheadIsolation(CircuitBreakerProperties.BulkheadIsolation.PROVIDER_AND_COMMAND);
+        factory = createFactory(circuitBreakerProperties);
+
+        JwtClaims jwtClaims = new JwtClaims();
+        jwtClaims.setClaim("client-id", UUID.randomUUID().toString());
+        jwtClaims.setClaim("psd2-licensed", true);
+        clientToken = new ClientToken(null, jwtClaims);
+    }
+
+    @AfterEach
+    void afterEach() throws Exception {
+        timeLimiterScheduler.shutdown();
+        for (ThreadPoolBulkhead threadPoolBulkhead : threadPoolBulkheadRegistry.getAllBulkheads()) {
+            threadPoolBulkhead.close();
+        }
+    }
+
+    @Test
+    void shouldRemoveIdleCircuitBreakerWithItsBulkheadAndMeters() {
+        // given
+        when(clock.millis()).thenReturn(0L, IDLE_TIMEOUT_IN_MILLIS + 1);
+        ProvidersCircuitBreaker circuitBreaker = factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, UUID.randomUUID());
+        circuitBreaker.run(() -> Boolean.TRUE);
+
+        // when
+        factory.evictIdle();
+
+        // then
+        assertThat(circuitBreakerRegistry.getAllCircuitBreakers()).isEmpty();
+        assertThat(threadPoolBulkheadRegistry.getAllBulkheads()).isEmpty();
+        assertThat(meterRegistry.getMeters())
+                .noneMatch(meter -> meter.getId().getName().startsWith("resilience4j"));
+    }
+
+    @Test
+    void shouldKeepCircuitBreakerThatWasUsedWithinIdleTimeoutAndTheBulkheadItShares() {
+        // given
+        when(clock.millis()).thenReturn(0L, IDLE_TIMEOUT_IN_MILLIS, IDLE_TIMEOUT_IN_MILLIS + 1);
+        UUID usedRedirectUrlId = UUID.randomUUID();
+        factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, UUID.randomUUID());
+        ProvidersCircuitBreaker usedCircuitBreaker = factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, usedRedirectUrlId);
+
+        // when
+        factory.evictIdle();
+
+        // then
+        assertThat(circuitBreakerRegistry.getAllCircuitBreakers().map(CircuitBreaker::getName))
+                .containsExactly("TESTPROVIDER-" + usedRedirectUrlId + "-fetchData");
+        assertThat(threadPoolBulkheadRegistry.getAllBulkheads()).hasSize(1);
+        assertThat(usedCircuitBreaker.run(() -> Boolean.TRUE)).isTrue();
+    }
+
+    @Test
+    void shouldCreateNewCircuitBreakerWithNewBulkheadWhenUsedAfterEviction() {
+        // given
+        when(clock.millis()).thenReturn(0L, IDLE_TIMEOUT_IN_MILLIS + 1, IDLE_TIMEOUT_IN_MILLIS + 2);
+        UUID redirectUrlId = UUID.randomUUID();
+        ProvidersCircuitBreaker evictedCircuitBreaker = factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, redirectUrlId);
+        factory.evictIdle();
+
+        // when
+        ProvidersCircuitBreaker circuitBreaker = factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, redirectUrlId);
+
+        // then
+        assertThat(circuitBreaker).isNotSameAs(evictedCircuitBreaker);
+        assertThat(circuitBreaker.run(() -> Boolean.TRUE)).isTrue();
+        assertThat(circuitBreakerRegistry.getAllCircuitBreakers()).hasSize(1);
+        assertThat(threadPoolBulkheadRegistry.getAllBulkheads()).hasSize(1);
+    }
+
+    @Test
+    void shouldShareBulkheadThreadsOfAllRedirectUrlsOfProviderAndCommand() {
+        // given
+        int redirectUrls = 500;
+
+        // when
+        for (int i = 0; i < redirectUrls; i++) {
+            ProvidersCircuitBreaker circuitBreaker = factory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, UUID.randomUUID());
+            circuitBreaker.run(() -> Boolean.TRUE);
+        }
+
+        // then
+        assertThat(circuitBreakerRegistry.getAllCircuitBreakers()).hasSize(redirectUrls);
+        assertThat(threadPoolBulkheadRegistry.getAllBulkheads().map(ThreadPoolBulkhead::getName))
+                .containsExactly("TESTPROVIDER-fetchData");
+        long bulkheadThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("bulkhead-TESTPROVIDER-"))
+                .count();
+        assertThat(bulkheadThreads).isLessThanOrEqualTo(threadPoolBulkheadRegistry.getDefaultConfig().getMaxThreadPoolSize());
+    }
+
+    @Test
+    void shouldShareBulkheadThreadsOfAllRedirectUrlsWithDefaultIsolation() {
+        // given
+        Resilience4jCircuitBreakerFactory defaultFactory = createFactory(new CircuitBreakerProperties());
+        int redirectUrls = 500;
+
+        // when
+        for (int i = 0; i < redirectUrls; i++) {
+            ProvidersCircuitBreaker circuitBreaker = defaultFactory.create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, UUID.randomUUID());
+            circuitBreaker.run(() -> Boolean.TRUE);
+        }
+
+        // then
+        assertThat(circuitBreakerRegistry.getAllCircuitBreakers()).hasSize(redirectUrls);
+        assertThat(threadPoolBulkheadRegistry.getAllBulkheads().map(ThreadPoolBulkhead::getName))
+                .containsExactly("TESTPROVIDER-fetchData");
+        long bulkheadThreads = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("bulkhead-TESTPROVIDER-"))
+                .count();
+        assertThat(bulkheadThreads).isLessThanOrEqualTo(threadPoolBulkheadRegistry.getDefaultConfig().getMaxThreadPoolSize());
+    }
+
+    @Test
+    void shouldNotCountFullBulkheadAsFailureOfCircuitBreaker() {
+        // given
+        CircuitBreakerProperties circuitBreakerProperties = new CircuitBreakerProperties();
+        circuitBreakerProperties.setMaxConcurrentBulkheadCalls(0);
+        ProvidersCircuitBreaker circuitBreaker = createFactory(circuitBreakerProperties)
+                .create(clientToken, UUID.randomUUID(), PROVIDER_KEY, ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, UUID.randomUUID());
+
+        // when
+        Throwable thrown = circuitBreaker.run(() -> null, throwable -> throwable);
+
+        // then
+        assertThat(thrown).isInstanceOf(BulkheadFullException.class);
+        CircuitBreaker.Metrics metrics = circuitBreakerRegistry.getAllCircuitBreakers().head().getMetrics();
+        assertThat(metrics.getNumberOfFailedCalls()).isZero();
+        assertThat(metrics.getNumberOfBufferedCalls()).isZero();
+    }
+
+    private Resilience4jCircuitBreakerFactory createFactory(CircuitBreakerProperties circuitBreakerProperties) {
+        return new Resilience4jCircuitBreakerFactory(
+                circuitBreakerRegistry,
+                TimeLimiterRegistry.ofDefaults(),
+                threadPoolBulkheadRegistry,
+                siteDetailsService,
+                timeLimiterScheduler,
+                circuitBreakerProperties,
+                meterRegistry,
+                clock);
+    }
+}
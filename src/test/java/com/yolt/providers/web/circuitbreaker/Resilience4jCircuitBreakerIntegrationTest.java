@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -53,6 +54,60 @@ public class Resilience4jCircuitBreakerIntegrationTest {
         assertThat(wasExecuted).isTrue();
     }
 
+    @Test
+    public void shouldCallSupplierOnBulkheadThreadForRunAsync() {
+        // given
+        JwtClaims jwtClaims = new JwtClaims();
+        jwtClaims.setClaim("client-id", UUID.randomUUID().toString());
+        jwtClaims.setClaim("psd2-licensed", true);
+        ProvidersCircuitBreaker circuitBreaker = factory.create(new ClientToken(null, jwtClaims), UUID.randomUUID(), "fake-provider-key", ProvidersCircuitBreakerCommand.PIS_CONFIRM_PAYMENT, UUID.randomUUID());
+        Thread callingThread = Thread.currentThread();
+
+        // when
+        CompletionStage<Thread> executingThread = circuitBreaker.runAsync(Thread::currentThread, throwable -> callingThread);
+
+        // then
+        assertThat(executingThread.toCompletableFuture().join()).isNotEqualTo(callingThread);
+    }
+
+    @Test
+    public void shouldCallFallbackForRunAsync() {
+        // given
+        JwtClaims jwtClaims = new JwtClaims();
+        jwtClaims.setClaim("client-id", UUID.randomUUID().toString());
+        jwtClaims.setClaim("psd2-licensed", true);
+        ProvidersCircuitBreaker circuitBreaker = factory.create(new ClientToken(null, jwtClaims), UUID.randomUUID(), "fake-provider-key", ProvidersCircuitBreakerCommand.PIS_CONFIRM_PAYMENT, UUID.randomUUID());
+
+        // when
+        CompletionStage<Boolean> wasExecuted = circuitBreaker.runAsync(
+                () -> {
+                    throw new IllegalArgumentException();
+                },
+                throwable -> Boolean.TRUE);
+
+        // then
+        assertThat(wasExecuted.toCompletableFuture().join()).isTrue();
+    }
+
+    @Test
+    public void shouldReuseCircuitBreakerOfProviderRedirectUrlAndCommand() {
+        // given
+        JwtClaims jwtClaims = new JwtClaims();
+        jwtClaims.setClaim("client-id", UUID.randomUUID().toString());
+        jwtClaims.setClaim("psd2-licensed", true);
+        ClientToken clientToken = new ClientToken(null, jwtClaims);
+        UUID redirectUrlId = UUID.randomUUID();
+        ProvidersCircuitBreaker circuitBreaker = factory.create(clientToken, UUID.randomUUID(), "fake-provider-key", ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, redirectUrlId);
+
+        // when
+        ProvidersCircuitBreaker sameIdentity = factory.create(clientToken, null, "fake-provider-key", ProvidersCircuitBreakerCommand.AIS_FETCH_DATA, redirectUrlId);
+        ProvidersCircuitBreaker otherCommand = factory.create(clientToken, null, "fake-provider-key", ProvidersCircuitBreakerCommand.PIS_CONFIRM_PAYMENT, redirectUrlId);
+
+        // then
+        assertThat(sameIdentity).isSameAs(circuitBreaker);
+        assertThat(otherCommand).isNotSameAs(circuitBreaker);
+    }
+
     @Test
     public void shouldHaveASeparateCircuitBreakerForPsd2LicensedClients_and_OneCircuitBreakerForNonLicensedClients_and_publishMetrics() {
 
@@ -0,0 +1,140 @@
+package com.yolt.providers.web.circuitbreaker;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class Resilience4jCircuitBreakerTest {
+
+    private static final int BULKHEAD_CALL_PERMITS = 2;
+
+    private ScheduledExecutorService timeLimiterScheduler;
+    private Semaphore bulkheadCallPermits;
+    private ThreadPoolBulkhead threadPoolBulkhead;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void beforeEach() {
+        timeLimiterScheduler = Executors.newSingleThreadScheduledExecutor();
+        bulkheadCallPermits = new Semaphore(BULKHEAD_CALL_PERMITS);
+        threadPoolBulkhead = ThreadPoolBulkhead.of("test", ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(1)
+                .maxThreadPoolSize(1)
+                .queueCapacity(1)
+                .build());
+        circuitBreaker = CircuitBreaker.ofDefaults("test");
+    }
+
+    @AfterEach
+    void afterEach() throws Exception {
+        timeLimiterScheduler.shutdown();
+        threadPoolBulkhead.close();
+    }
+
+    @Test
+    void shouldRunCallOnBulkheadAndReleasePermitWhenCallIsDone() {
+        // given
+        ProvidersCircuitBreaker providersCircuitBreaker = circuitBreaker(Duration.ofSeconds(5));
+
+        // when
+        String result = providersCircuitBreaker.run(() -> Thread.currentThread().getName(), throwable -> "fallback");
+
+        // then
+        assertThat(result).startsWith("bulkhead-test-");
+        assertThat(bulkheadCallPermits.availablePermits()).isEqualTo(BULKHEAD_CALL_PERMITS);
+    }
+
+    @Test
+    void shouldPassExceptionOfCallToFallbackAndReleasePermitWhenCallFails() {
+        // given
+        ProvidersCircuitBreaker providersCircuitBreaker = circuitBreaker(Duration.ofSeconds(5));
+        IllegalStateException exception = new IllegalStateException("bank is down");
+
+        // when
+        Throwable result = providersCircuitBreaker.run(() -> {
+            throw exception;
+        }, throwable -> throwable);
+
+        // then
+        assertThat(result)
+                .isInstanceOf(CompletionException.class)
+                .hasCause(exception);
+        assertThat(bulkheadCallPermits.availablePermits()).isEqualTo(BULKHEAD_CALL_PERMITS);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFallBackOnTimeoutAndHoldPermitUntilCallIsDone() {
+        // given
+        ProvidersCircuitBreaker providersCircuitBreaker = circuitBreaker(Duration.ofMillis(10));
+        CountDownLatch bankResponds = new CountDownLatch(1);
+
+        // when
+        Throwable result = providersCircuitBreaker.run(() -> {
+            awaitUninterruptibly(bankResponds);
+            return null;
+        }, throwable -> throwable);
+
+        // then
+        assertThat(result)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(circuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+        assertThat(bulkheadCallPermits.availablePermits()).isEqualTo(BULKHEAD_CALL_PERMITS - 1);
+
+        // when
+        bankResponds.countDown();
+
+        // then
+        await().atMost(5, TimeUnit.SECONDS)
+                .until(() -> bulkheadCallPermits.availablePermits() == BULKHEAD_CALL_PERMITS);
+    }
+
+    @Test
+    void shouldRejectCallWithoutPermitLikeAFullBulkhead() {
+        // given
+        ProvidersCircuitBreaker providersCircuitBreaker = circuitBreaker(Duration.ofSeconds(5));
+        bulkheadCallPermits.acquireUninterruptibly(BULKHEAD_CALL_PERMITS);
+
+        // when
+        Throwable result = providersCircuitBreaker.run(() -> null, throwable -> throwable);
+
+        // then
+        assertThat(result).isInstanceOf(BulkheadFullException.class);
+        assertThat(bulkheadCallPermits.availablePermits()).isZero();
+        assertThat(threadPoolBulkhead.getMetrics().getRemainingQueueCapacity()).isEqualTo(1);
+    }
+
+    private ProvidersCircuitBreaker circuitBreaker(Duration timeout) {
+        TimeLimiter timeLimiter = TimeLimiter.of(TimeLimiterConfig.custom()
+                .timeoutDuration(timeout)
+                .build());
+        return new Resilience4jCircuitBreaker(circuitBreaker, timeLimiter, threadPoolBulkhead, timeLimiterScheduler, bulkheadCallPermits);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
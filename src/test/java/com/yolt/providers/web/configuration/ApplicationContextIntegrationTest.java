@@ -0,0 +1,43 @@
+package com.yolt.providers.web.configuration;
+
+import com.yolt.providers.web.service.configuration.ProviderConnectionProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the application context with the real application.yml, so a configuration that does not bind (or a yml that
+ * does not parse, e.g. because of a duplicate key) fails the build instead of the start of the pod.
+ */
+@IntegrationTestContext
+class ApplicationContextIntegrationTest {
+
+    @Autowired
+    private ProviderConnectionProperties providerConnectionProperties;
+
+    @Test
+    void shouldLoadApplicationYml() throws IOException {
+        // when
+        List<PropertySource<?>> propertySources = new YamlPropertySourceLoader()
+                .load("application.yml", new ClassPathResource("application.yml"));
+
+        // then
+        assertThat(propertySources).isNotEmpty();
+    }
+
+    @Test
+    void shouldBindConnectionPropertiesOfApplicationYml() {
+        // then
+        assertThat(providerConnectionProperties.getAdaptiveMaxPerRoute().getMin()).isEqualTo(2);
+        assertThat(providerConnectionProperties.getAdaptiveMaxPerRoute().getMax()).isEqualTo(50);
+        assertThat(providerConnectionProperties.getAdaptiveMaxPerRoute().getLeaseWaitThresholdInMillis()).isEqualTo(100);
+        assertThat(providerConnectionProperties.getPoolOverrides()).isEmpty();
+    }
+}
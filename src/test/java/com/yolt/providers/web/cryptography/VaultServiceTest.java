@@ -18,9 +18,17 @@ import java.security.Security;
 import java.util.Base64;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -53,7 +61,7 @@ public class VaultServiceTest {
 
     @BeforeEach
     public void beforeEach() {
-        vaultService = new VaultService(() -> vaultTemplate, "test", "test", "test", "test");
+        vaultService = new VaultService(() -> vaultTemplate, "test", "test", "test", "test", new PrivateKeyCacheProperties());
 
         when(clientToken.getClientIdClaim()).thenReturn(CLIENT_ID);
         when(clientToken.getClientGroupIdClaim()).thenReturn(CLIENT_GROUP_ID);
@@ -176,4 +184,119 @@ public class VaultServiceTest {
         // then
         assertThat(privateSigningKey).isEqualTo(generatedKeyPair.getPrivate());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldReadPrivateSigningKeyFromVaultOnlyOnceForSubsequentGetPrivateSigningKey() throws Exception {
+        // given
+        UUID kid = UUID.randomUUID();
+        String secretsPath = VAULT_SECRETS_BASE_PATH + "/signing/data/" + kid;
+        when(vaultTemplate.read(secretsPath)).thenReturn(createVaultResponse("client-id", CLIENT_ID.toString()));
+
+        // when
+        PrivateKey first = vaultService.getPrivateSigningKey(clientToken, kid);
+        PrivateKey second = vaultService.getPrivateSigningKey(clientToken, kid);
+
+        // then
+        assertThat(second).isSameAs(first);
+        verify(vaultTemplate, times(1)).read(secretsPath);
+    }
+
+    @Test
+    public void shouldThrowKeyNotFoundExceptionForCachedPrivateTransportKeyWhenKeyIsBoundToDifferentClient() throws Exception {
+        // given
+        UUID kid = UUID.randomUUID();
+        when(vaultTemplate.read(VAULT_SECRETS_BASE_PATH + "/transport/data/" + kid)).thenReturn(createVaultResponse("client-id", CLIENT_ID.toString()));
+        vaultService.getPrivateTransportKey(clientToken, kid);
+        ClientToken otherClientToken = mock(ClientToken.class);
+        when(otherClientToken.getClientIdClaim()).thenReturn(UUID.randomUUID());
+        when(otherClientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
+
+        // when
+        ThrowableAssert.ThrowingCallable getPrivateTransportKeyCallable = () -> vaultService.getPrivateTransportKey(otherClientToken, kid);
+
+        // then
+        assertThatThrownBy(getPrivateTransportKeyCallable)
+                .isInstanceOf(KeyNotFoundException.class);
+    }
+
+    @Test
+    public void shouldReadPrivateTransportKeyFromVaultAgainAfterInvalidateClientPrivateKeys() throws Exception {
+        // given
+        UUID kid = UUID.randomUUID();
+        String secretsPath = VAULT_SECRETS_BASE_PATH + "/transport/data/" + kid;
+        when(vaultTemplate.read(secretsPath)).thenReturn(createVaultResponse("client-id", CLIENT_ID.toString()));
+        vaultService.getPrivateTransportKey(clientToken, kid);
+
+        // when
+        vaultService.invalidateClientGroupPrivateKeys(UUID.randomUUID());
+        vaultService.getPrivateTransportKey(clientToken, kid);
+        vaultService.invalidateClientPrivateKeys(CLIENT_ID);
+        vaultService.getPrivateTransportKey(clientToken, kid);
+
+        // then
+        verify(vaultTemplate, times(2)).read(secretsPath);
+    }
+
+    @Test
+    public void shouldReadPrivateSigningKeyFromVaultAgainAfterInvalidateClientGroupPrivateKeys() throws Exception {
+        // given
+        UUID kid = UUID.randomUUID();
+        String secretsPath = VAULT_SECRETS_BASE_PATH + "/signing/data/" + kid;
+        when(vaultTemplate.read(secretsPath)).thenReturn(createVaultResponse("client-group-id", CLIENT_GROUP_ID.toString()));
+        vaultService.getPrivateSigningKey(clientToken, kid);
+
+        // when
+        vaultService.invalidateClientGroupPrivateKeys(CLIENT_GROUP_ID);
+        vaultService.getPrivateSigningKey(clientToken, kid);
+
+        // then
+        verify(vaultTemplate, times(2)).read(secretsPath);
+    }
+
+    @Test
+    public void shouldReadPrivateTransportKeyFromVaultOnceForConcurrentGetPrivateTransportKey() throws Exception {
+        // given
+        UUID kid = UUID.randomUUID();
+        String secretsPath = VAULT_SECRETS_BASE_PATH + "/transport/data/" + kid;
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch readMayFinish = new CountDownLatch(1);
+        when(vaultTemplate.read(secretsPath)).thenAnswer(invocation -> {
+            readStarted.countDown();
+            readMayFinish.await(5, TimeUnit.SECONDS);
+            return createVaultResponse("client-id", CLIENT_ID.toString());
+        });
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            // when
+            CompletableFuture<PrivateKey> first = CompletableFuture.supplyAsync(() -> getPrivateTransportKey(kid), executorService);
+            readStarted.await(5, TimeUnit.SECONDS);
+            CompletableFuture<PrivateKey> second = CompletableFuture.supplyAsync(() -> getPrivateTransportKey(kid), executorService);
+            readMayFinish.countDown();
+
+            // then
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+            verify(vaultTemplate, times(1)).read(secretsPath);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private PrivateKey getPrivateTransportKey(UUID kid) {
+        try {
+            return vaultService.getPrivateTransportKey(clientToken, kid);
+        } catch (KeyNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static VaultResponse createVaultResponse(String ownerKey, String ownerId) {
+        VaultResponse response = new VaultResponse();
+        String base64EncodedPrivateKey = Base64.getEncoder().encodeToString(generatedKeyPair.getPrivate().getEncoded());
+        response.setData(Map.of("data", Map.of(
+                ownerKey, ownerId,
+                "key-algorithm", "RSA",
+                "private-key", base64EncodedPrivateKey)));
+        return response;
+    }
+}
@@ -40,7 +40,7 @@ public class JcaSignerTest {
 
     @BeforeEach
     public void beforeEach() {
-        cryptoSigner = new JcaSigner(clientToken, keyService);
+        cryptoSigner = new JcaSigner(clientToken, keyService, new SignaturePool());
     }
 
     @Test
@@ -106,4 +106,32 @@ public class JcaSignerTest {
         result.setKey(keypair.getPublic());
         assertThat(result.verifySignature()).isTrue();
     }
+
+    @Test
+    public void shouldReturnSignatureOfEachKeyForSubsequentSignWithDifferentKeys() throws Exception {
+        // given
+        when(clientToken.getClientIdClaim()).thenReturn(CLIENT_ID);
+        when(clientToken.getClientGroupIdClaim()).thenReturn(CLIENT_GROUP_ID);
+        KeyPair firstKeypair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        KeyPair secondKeypair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        UUID firstKid = UUID.randomUUID();
+        UUID secondKid = UUID.randomUUID();
+        when(keyService.getPrivateSigningKey(clientToken, firstKid)).thenReturn(firstKeypair.getPrivate());
+        when(keyService.getPrivateSigningKey(clientToken, secondKid)).thenReturn(secondKeypair.getPrivate());
+        JsonWebSignature jws = new JsonWebSignature();
+        jws.setAlgorithmHeaderValue(AlgorithmIdentifiers.RSA_USING_SHA256);
+        jws.setPayload("payload");
+
+        // when
+        String firstCompact = cryptoSigner.sign(jws, firstKid, SignatureAlgorithm.SHA256_WITH_RSA).getCompactSerialization();
+        String secondCompact = cryptoSigner.sign(jws, secondKid, SignatureAlgorithm.SHA256_WITH_RSA).getCompactSerialization();
+
+        // then
+        JsonWebSignature firstResult = (JsonWebSignature) JsonWebSignature.fromCompactSerialization(firstCompact);
+        firstResult.setKey(firstKeypair.getPublic());
+        assertThat(firstResult.verifySignature()).isTrue();
+        JsonWebSignature secondResult = (JsonWebSignature) JsonWebSignature.fromCompactSerialization(secondCompact);
+        secondResult.setKey(secondKeypair.getPublic());
+        assertThat(secondResult.verifySignature()).isTrue();
+    }
 }
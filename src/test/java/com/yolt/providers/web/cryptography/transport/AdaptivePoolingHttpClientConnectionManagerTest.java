@@ -0,0 +1,75 @@
+package com.yolt.providers.web.cryptography.transport;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePoolingHttpClientConnectionManagerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 8080));
+
+    private AdaptivePoolingHttpClientConnectionManager connectionManager;
+
+    @BeforeEach
+    void beforeEach() {
+        connectionManager = new AdaptivePoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new PlainConnectionSocketFactory())
+                .build());
+        connectionManager.setDefaultMaxPerRoute(4);
+    }
+
+    @AfterEach
+    void afterEach() {
+        connectionManager.shutdown();
+    }
+
+    @Test
+    void shouldDoubleLimitOfRouteWithinBoundsWhenRequestsWaitedLongerThanThreshold() throws Exception {
+        // given
+        HttpClientConnection connection = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+        // when
+        connectionManager.adjustMaxPerRoute(2, 6, 0);
+
+        // then
+        assertThat(connectionManager.getMaxPerRoute(ROUTE)).isEqualTo(6);
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void shouldKeepLimitOfRouteWhenRequestsDidNotWaitLongerThanThreshold() throws Exception {
+        // given
+        HttpClientConnection connection = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+        // when
+        connectionManager.adjustMaxPerRoute(2, 6, 60_000);
+
+        // then
+        assertThat(connectionManager.getMaxPerRoute(ROUTE)).isEqualTo(4);
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void shouldHalveLimitOfRouteWithinBoundsWhenRouteWasNotUsedSincePreviousAdjustment() throws Exception {
+        // given
+        HttpClientConnection connection = connectionManager.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+        connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+        connectionManager.adjustMaxPerRoute(3, 6, 60_000);
+
+        // when
+        connectionManager.adjustMaxPerRoute(3, 6, 60_000);
+
+        // then
+        assertThat(connectionManager.getMaxPerRoute(ROUTE)).isEqualTo(3);
+    }
+}
@@ -1,18 +1,25 @@
 package com.yolt.providers.web.cryptography.transport;
 
 import com.yolt.providers.common.cryptography.RestTemplateManager;
+import com.yolt.providers.common.domain.RestTemplateManagerConfiguration;
+import com.yolt.providers.common.rest.ExternalRestTemplateBuilderFactory;
 import com.yolt.providers.web.configuration.IntegrationTestContext;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import nl.ing.lovebird.clienttokens.ClientGroupToken;
 import nl.ing.lovebird.clienttokens.ClientToken;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 
 import java.util.UUID;
 
 import static com.yolt.providers.common.versioning.ProviderVersion.*;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static nl.ing.lovebird.providerdomain.ServiceType.AIS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -30,6 +37,12 @@ public class MutualTLSRestTemplateManagerCacheIntegrationTest {
     @Autowired
     private MutualTLSRestTemplateManagerCache mutualTLSRestTemplateManagerCache;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     public void shouldReturnTheSameRestTemplateManagerInstanceForGetForClientProviderWhenCalledAgainWithTheSameData() {
         // given
@@ -83,4 +96,21 @@ public class MutualTLSRestTemplateManagerCacheIntegrationTest {
                 .isNotEqualTo(expectedVersion1)
                 .isNotEqualTo(expectedVersion2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRetireConnectionPoolsOfRestTemplateManagerWhenItIsRemovedFromTheCache() {
+        // given
+        when(CLIENT_TOKEN.getClientIdClaim()).thenReturn(UUID.randomUUID());
+        RestTemplateManager restTemplateManager = mutualTLSRestTemplateManagerCache.getForClientProvider(CLIENT_TOKEN, AIS, LLOYDS_BANK_NAME, true, VERSION_1);
+        restTemplateManager.manage(new RestTemplateManagerConfiguration(ExternalRestTemplateBuilderFactory::build));
+        double retiredPoolsBefore = meterRegistry.get("provider_connection_pools_retired").gauge().value();
+
+        // when
+        ((CaffeineCache) cacheManager.getCache("mutualTLSCache")).getNativeCache().invalidateAll();
+
+        // then
+        await().atMost(5, SECONDS).untilAsserted(() ->
+                assertThat(meterRegistry.get("provider_connection_pools_retired").gauge().value()).isGreaterThan(retiredPoolsBefore));
+        assertThat(meterRegistry.get("cache.gets").tags("cache", "mutualTLSCache", "result", "miss").functionCounter().count()).isPositive();
+    }
+}
@@ -62,6 +62,10 @@ public class MutualTLSRestTemplateManagerIntegrationTest {
     private RawDataProducer rawDataProducer;
     @Autowired
     private ApplicationContext applicationContext;
+    @Autowired
+    private ConnectionPoolReaper connectionPoolReaper;
+    @Autowired
+    private SSLContextFactory sslContextFactory;
 
     @LocalServerPort
     private int localPort;
@@ -71,7 +75,7 @@ public class MutualTLSRestTemplateManagerIntegrationTest {
         keyStore = loadKeyStore();
         when(CLIENT_TOKEN.getClientIdClaim()).thenReturn(UUID.randomUUID());
         restTemplateManager = new DataAwareMtlsRestTemplateManager(
-                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_IMPL_OPENBANKING", rawDataProducer);
+                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_IMPL_OPENBANKING", rawDataProducer, connectionPoolReaper, sslContextFactory);
     }
 
     @Test
@@ -32,6 +32,9 @@ import io.micrometer.core.instrument.simple.SimpleConfig;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.SneakyThrows;
 import nl.ing.lovebird.clienttokens.ClientToken;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
 import org.apache.http.client.protocol.ResponseProcessCookies;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -53,6 +56,7 @@ import wiremock.org.eclipse.jetty.server.ServerConnector;
 import wiremock.org.eclipse.jetty.server.SslConnectionFactory;
 
 import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
 import java.io.InputStream;
@@ -62,12 +66,23 @@ import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.*;
@@ -111,6 +126,8 @@ public class MutualTLSRestTemplateManagerTest {
     private KeyStore keyStore;
     private ListAppender<ILoggingEvent> cookieListAppender;
     private MeterRegistry meterRegistry;
+    private ConnectionPoolReaper connectionPoolReaper;
+    private SSLContextFactory sslContextFactory;
 
     @BeforeAll
     static void beforeAll() {
@@ -121,6 +138,13 @@ public class MutualTLSRestTemplateManagerTest {
         providerConnectionProperties.setRequestTimeoutInMillis(-1);
         providerConnectionProperties.setConnectTimeoutInMillis(-1);
         providerConnectionProperties.setSocketTimeoutInMillis(-1);
+        providerConnectionProperties.setIdleConnectionTimeoutInMillis(0);
+        providerConnectionProperties.setRetiredPoolGracePeriodInMillis(0);
+        providerConnectionProperties.setSslContextCacheMaximumSize(100);
+        providerConnectionProperties.setSslContextCacheExpireAfterAccessInSeconds(60);
+        providerConnectionProperties.setTlsSessionCacheSize(10);
+        providerConnectionProperties.setTlsSessionTimeoutInSeconds(60);
+        providerConnectionProperties.setHttp2Providers(Set.of("TEST_HTTP2"));
     }
 
     @BeforeEach
@@ -138,8 +162,10 @@ public class MutualTLSRestTemplateManagerTest {
 
         keyStore = loadKeyStore();
         when(CLIENT_TOKEN.getClientIdClaim()).thenReturn(UUID.randomUUID());
+        connectionPoolReaper = new ConnectionPoolReaper(providerConnectionProperties, meterRegistry, Clock.systemUTC());
+        sslContextFactory = new SSLContextFactory(providerConnectionProperties, meterRegistry);
         restTemplateManager = new DataAwareMtlsRestTemplateManager(
-                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_IMPL_OPENBANKING", rawDataProducer);
+                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_IMPL_OPENBANKING", rawDataProducer, connectionPoolReaper, sslContextFactory);
 
         cookieListAppender = new ListAppender<>();
         cookieListAppender.start();
@@ -280,6 +306,27 @@ public class MutualTLSRestTemplateManagerTest {
         assertThat(Set.of(restTemplate1, restTemplate2)).hasSize(2);
     }
 
+    @Test
+    public void shouldReturnDifferentRestTemplateInstancesWhenCustomizationFunctionManagesAnotherReference() {
+        // given
+        UUID keyId1 = UUID.randomUUID();
+        UUID keyId2 = UUID.randomUUID();
+        X509Certificate certificate = mock(X509Certificate.class);
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        AtomicReference<RestTemplate> nestedRestTemplate = new AtomicReference<>();
+
+        // when - The customization function runs outside of the map, so it can ask the manager for another RestTemplate
+        RestTemplate restTemplate = restTemplateManager.manage(new RestTemplateManagerConfiguration(keyId1, certificate, externalRestTemplateBuilderFactory -> {
+            nestedRestTemplate.set(restTemplateManager.manage(new RestTemplateManagerConfiguration(keyId2, certificate, ExternalRestTemplateBuilderFactory::build)));
+            return externalRestTemplateBuilderFactory.build();
+        }));
+
+        // then
+        assertThat(restTemplate).isNotSameAs(nestedRestTemplate.get());
+        assertThat(restTemplateManager.manage(new RestTemplateManagerConfiguration(keyId2, certificate, ExternalRestTemplateBuilderFactory::build)))
+                .isSameAs(nestedRestTemplate.get());
+    }
+
     @Test
     public void shouldReturnCorrectResponseWhenUsingTLSRestTemplateForManageWithCorrectParameters() throws KeyNotFoundException {
         // given
@@ -303,6 +350,169 @@ public class MutualTLSRestTemplateManagerTest {
         assertCookiesAreIgnored();
     }
 
+    @Test
+    public void shouldCloseIdleConnectionsAndShutDownPoolsOfClosedManagerWhenConnectionPoolsAreReaped() {
+        // given
+        String url = String.format(URL_FORMAT, singleTLSServer.httpsPort());
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        RestTemplate restTemplate = restTemplateManager.manage(new RestTemplateManagerConfiguration(externalRestTemplateBuilderFactory ->
+                externalRestTemplateBuilderFactory
+                        .messageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()))
+                        .build()));
+        restTemplate.getForEntity(url, JsonNode.class);
+        assertThat(meterRegistry.get("provider_connection_pool_available").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isEqualTo(1);
+
+        // when
+        connectionPoolReaper.reap();
+
+        // then
+        assertThat(meterRegistry.get("provider_connection_pool_available").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isZero();
+        assertThat(meterRegistry.get("provider_connection_pools").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isEqualTo(1);
+
+        // when
+        restTemplateManager.close();
+        connectionPoolReaper.reap();
+
+        // then
+        assertThat(meterRegistry.get("provider_connection_pools").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isZero();
+        assertThatThrownBy(() -> restTemplate.getForEntity(url, JsonNode.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shut down");
+    }
+
+    @Test
+    public void shouldShutDownPoolThatIsCreatedAfterManagerWasClosedWhenConnectionPoolsAreReaped() {
+        // given
+        String url = String.format(URL_FORMAT, singleTLSServer.httpsPort());
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        restTemplateManager.close();
+
+        // when
+        RestTemplate restTemplate = restTemplateManager.manage(new RestTemplateManagerConfiguration(externalRestTemplateBuilderFactory ->
+                externalRestTemplateBuilderFactory
+                        .messageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()))
+                        .build()));
+        connectionPoolReaper.reap();
+
+        // then
+        assertThat(meterRegistry.get("provider_connection_pools").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isZero();
+        assertThatThrownBy(() -> restTemplate.getForEntity(url, JsonNode.class))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shut down");
+    }
+
+    @Test
+    public void shouldResumeTlsSessionWhenNewConnectionIsOpenedWithTheSameClientIdentity() {
+        // given
+        String url = String.format(URL_FORMAT, singleTLSServer.httpsPort());
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        RestTemplate restTemplate = restTemplateManager.manage(new RestTemplateManagerConfiguration(externalRestTemplateBuilderFactory ->
+                externalRestTemplateBuilderFactory
+                        .messageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()))
+                        .build()));
+        restTemplate.getForEntity(url, JsonNode.class);
+        connectionPoolReaper.reap();
+
+        // when
+        restTemplate.getForEntity(url, JsonNode.class);
+
+        // then
+        assertThat(meterRegistry.get("provider_tls_handshake").tags("provider", "TEST_IMPL_OPENBANKING", "protocol", Protocol.HTTP_1_1.toString(), "resumed", "false").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("provider_tls_handshake").tags("provider", "TEST_IMPL_OPENBANKING", "protocol", Protocol.HTTP_1_1.toString(), "resumed", "true").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldReturnCorrectResponseOverHttp1WhenHttp2IsEnabledForProviderAndServerDoesNotNegotiateIt() throws KeyNotFoundException {
+        // given
+        UUID keyId = UUID.randomUUID();
+        X509Certificate certificate = loadCertificate();
+        String url = String.format(URL_FORMAT, mutualTLSServer.httpsPort());
+        when(vaultService.getPrivateTransportKey(CLIENT_TOKEN, keyId))
+                .thenReturn(retrievePrivateKey(keyStore));
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        MutualTLSRestTemplateManager http2RestTemplateManager = new DataAwareMtlsRestTemplateManager(
+                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_HTTP2", rawDataProducer, connectionPoolReaper, sslContextFactory);
+
+        // when
+        RestTemplate restTemplate = http2RestTemplateManager.manage(new RestTemplateManagerConfiguration(keyId, certificate, externalRestTemplateBuilderFactory ->
+                externalRestTemplateBuilderFactory
+                        .messageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()))
+                        .build()));
+
+        // then
+        JsonNode response = restTemplate.getForEntity(url, JsonNode.class).getBody();
+        assertThat(response).isNotNull();
+        assertThat(response.toString()).isEqualTo(JSON_RESPONSE);
+        assertThat(meterRegistry.find("provider_connection_pools").tag("provider", "TEST_HTTP2").gauge()).isNull();
+        assertThat(meterRegistry.get("provider_tls_handshake").tags("provider", "TEST_HTTP2", "protocol", Protocol.HTTP_1_1.toString(), "resumed", "false").timer().count()).isEqualTo(1);
+        http2RestTemplateManager.close();
+    }
+
+    @Test
+    public void shouldReturnCorrectResponseOverHttp2AndRecordTheHandshakeWhenHttp2IsEnabledForProviderAndServerNegotiatesIt() throws Exception {
+        // given
+        MockWebServer http2Server = new MockWebServer();
+        http2Server.useHttps(serverSSLContext(keyStore).getSocketFactory(), false);
+        http2Server.setProtocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        http2Server.enqueue(new MockResponse()
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody(JSON_RESPONSE));
+        http2Server.start();
+        String url = String.format(URL_FORMAT, http2Server.getPort());
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        MutualTLSRestTemplateManager http2RestTemplateManager = new DataAwareMtlsRestTemplateManager(
+                providerConnectionProperties, applicationContext, vaultService, CLIENT_TOKEN, getX509TrustManager(keyStore), yoltProxySelectorBuilder, meterRegistry, "TEST_HTTP2", rawDataProducer, connectionPoolReaper, sslContextFactory);
+        RestTemplate restTemplate = http2RestTemplateManager.manage(new RestTemplateManagerConfiguration(externalRestTemplateBuilderFactory ->
+                externalRestTemplateBuilderFactory
+                        .messageConverters(new MappingJackson2HttpMessageConverter(new ObjectMapper()))
+                        .build()));
+
+        // when
+        JsonNode response = restTemplate.getForEntity(url, JsonNode.class).getBody();
+
+        // then
+        assertThat(response).isNotNull();
+        assertThat(response.toString()).isEqualTo(JSON_RESPONSE);
+        assertThat(meterRegistry.get("provider_tls_handshake").tags("provider", "TEST_HTTP2", "protocol", Protocol.HTTP_2.toString(), "resumed", "false").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("provider_tls_handshake").tags("provider", "TEST_HTTP2", "protocol", Protocol.HTTP_1_1.toString(), "resumed", "false").timer().count()).isZero();
+        http2RestTemplateManager.close();
+        http2Server.shutdown();
+    }
+
+    @Test
+    public void shouldCreateExactlyOneRestTemplateAndConnectionPoolPerReferenceForConcurrentManage() throws Exception {
+        // given
+        UUID keyId = UUID.randomUUID();
+        X509Certificate certificate = mock(X509Certificate.class);
+        when(applicationContext.getBean(ExternalRestTemplateBuilderFactory.class)).thenReturn(new ExternalRestTemplateBuilderFactory());
+        int threads = 32;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RestTemplate>> futures = new ArrayList<>();
+        for (int i = 0; i < threads * 10; i++) {
+            boolean mutualTls = i % 2 == 0;
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return mutualTls
+                        ? restTemplateManager.manage(new RestTemplateManagerConfiguration(keyId, certificate, ExternalRestTemplateBuilderFactory::build))
+                        : restTemplateManager.manage(new RestTemplateManagerConfiguration(ExternalRestTemplateBuilderFactory::build));
+            }));
+        }
+
+        // when
+        start.countDown();
+        Set<RestTemplate> restTemplates = new HashSet<>();
+        for (Future<RestTemplate> future : futures) {
+            restTemplates.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+
+        // then
+        assertThat(restTemplates).hasSize(2);
+        assertThat(meterRegistry.get("provider_connection_pools").tag("provider", "TEST_IMPL_OPENBANKING").gauge().value()).isEqualTo(2);
+        verify(vaultService, times(1)).getPrivateTransportKey(CLIENT_TOKEN, keyId);
+    }
+
     @Test
     public void shouldReturnTheSameRestTemplateInstanceAndCallVaultServiceOnlyOnceForManageWhenCalledAgainWithTheSameParameters() throws KeyNotFoundException {
         // given
@@ -427,6 +637,15 @@ public class MutualTLSRestTemplateManagerTest {
         return (X509TrustManager) trustManagerFactory.getTrustManagers()[0];
     }
 
+    @SneakyThrows
+    private SSLContext serverSSLContext(KeyStore keyStore) {
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, PASSWORD.toCharArray());
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+        return sslContext;
+    }
+
     @SneakyThrows
     private KeyStore loadKeyStore() {
         InputStream keyStoreFile = getClass().getResourceAsStream(CERTIFICATES_PATH + KEYSTORE_FILE);
@@ -1,13 +1,28 @@
 package com.yolt.providers.web.encryption;
 
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class AesEncryptionUtilTest {
 
     private static final String secretKey = "a3f60fafc948035382fbe9ce7b4535c4";
 
+    /**
+     * Encrypted with the implementation that created a new BC cipher, key and SecureRandom for every call.
+     */
+    private static final String LEGACY_ENCRYPTED = "5fa0ef23e8a52c3a39634e711b512aa50445a48588293a1fb85af32f357df417" +
+            "32867eac416bc4297289924bfb6e6a26b86fdf5d79487a296c3b65320c56b4c499161254d8da6b66d25ffa58e6f8f38aaca26d46e16603";
+    private static final String LEGACY_INPUT = "{\"providerState\":\"thisIsASecretString\"}";
+
     @Test
     public void shouldReturnEncryptedInputForEncryptWithCorrectParameters() {
         // given
@@ -22,4 +37,66 @@ public class AesEncryptionUtilTest {
         assertThat(decryptedString).isEqualTo(input);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldDecryptValueEncryptedByLegacyImplementationForDecrypt() {
+        // when
+        String decryptedString = AesEncryptionUtil.decrypt(LEGACY_ENCRYPTED, secretKey);
+
+        // then
+        assertThat(decryptedString).isEqualTo(LEGACY_INPUT);
+    }
+
+    @Test
+    public void shouldReturnValueThatLegacyImplementationCanDecryptForEncrypt() throws Exception {
+        // given
+        String input = "thisIsASecretString";
+
+        // when
+        String encryptedString = AesEncryptionUtil.encrypt(input, secretKey);
+
+        // then
+        Cipher legacyCipher = Cipher.getInstance("AES/GCM/NoPadding", new BouncyCastleProvider());
+        legacyCipher.init(Cipher.DECRYPT_MODE,
+                new SecretKeySpec(Hex.decodeHex(secretKey), "AES"),
+                new IvParameterSpec(Hex.decodeHex(encryptedString.substring(0, 64))));
+        byte[] decryptedBytes = legacyCipher.doFinal(Hex.decodeHex(encryptedString.substring(64)));
+        assertThat(new String(decryptedBytes, StandardCharsets.UTF_8)).isEqualTo(input);
+    }
+
+    @Test
+    public void shouldReturnDifferentValueForSubsequentEncryptOfSameInput() {
+        // given
+        String input = "thisIsASecretString";
+
+        // when
+        String first = AesEncryptionUtil.encrypt(input, secretKey);
+        String second = AesEncryptionUtil.encrypt(input, secretKey);
+
+        // then
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    public void shouldReturnInputBytesForDecryptToBytesOfEncryptedBytes() {
+        // given
+        AesGcmEngine engine = AesEncryptionUtil.getEngine(secretKey);
+        byte[] input = LEGACY_INPUT.getBytes(StandardCharsets.UTF_8);
+
+        // when
+        byte[] decrypted = engine.decryptToBytes(engine.encrypt(input));
+
+        // then
+        assertThat(decrypted).isEqualTo(input);
+    }
+
+    @Test
+    public void shouldThrowEncryptionExceptionForDecryptWithTamperedInput() {
+        // given
+        String tampered = LEGACY_ENCRYPTED.substring(0, LEGACY_ENCRYPTED.length() - 1) + "0";
+
+        // when
+        // then
+        assertThatThrownBy(() -> AesEncryptionUtil.decrypt(tampered, secretKey))
+                .isInstanceOf(EncryptionException.class);
+    }
+}
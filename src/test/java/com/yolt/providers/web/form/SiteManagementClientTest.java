@@ -3,8 +3,10 @@ package com.yolt.providers.web.form;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.yolt.providers.web.configuration.InternalConnectionProperties;
 import com.yolt.providers.web.exception.SiteManagementUserSiteExternalIdUpdateException;
 import com.yolt.providers.web.rest.InternalRestTemplateBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.logging.MDCContextCreator;
 import nl.ing.lovebird.providershared.form.SetExternalUserSiteIdDTO;
 import org.apache.commons.lang3.RandomStringUtils;
@@ -16,11 +18,13 @@ import org.slf4j.MDC;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -32,6 +36,8 @@ class SiteManagementClientTest {
     private final UUID randomUserSiteId = UUID.randomUUID();
     private final String randomExternalId = RandomStringUtils.random(36, true, true);
 
+    private SimpleMeterRegistry meterRegistry;
+    private InternalRestTemplateBuilder internalRestTemplateBuilder;
     private SiteManagementClient siteManagementClient;
 
     @BeforeAll
@@ -45,7 +51,9 @@ class SiteManagementClientTest {
 
     @BeforeEach
     public void init() {
-        siteManagementClient = new SiteManagementClient(new InternalRestTemplateBuilder(), "http://localhost:" + wireMockServer.port() + SITE_MANAGEMENT_URL);
+        meterRegistry = new SimpleMeterRegistry();
+        internalRestTemplateBuilder = new InternalRestTemplateBuilder(new InternalConnectionProperties(), meterRegistry);
+        siteManagementClient = new SiteManagementClient(internalRestTemplateBuilder, "http://localhost:" + wireMockServer.port() + SITE_MANAGEMENT_URL);
         MDC.put(MDCContextCreator.USER_ID_MDC_KEY, randomUserId.toString()); //NOSHERIFF
     }
 
@@ -98,9 +106,45 @@ class SiteManagementClientTest {
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    public void shouldReuseConnectionForSubsequentUpdateExternalUserSiteIdCalls() {
+        // given
+        wireMockServer.stubFor(WireMock.put(urlMatching("/site-management/user-sites/" + randomUserSiteId + "/external"))
+                .willReturn(aResponse().withStatus(204)));
+        SetExternalUserSiteIdDTO dto = new SetExternalUserSiteIdDTO(randomUserId, randomUserSiteId, randomExternalId);
+
+        // when
+        siteManagementClient.updateExternalUserSiteId(dto);
+        siteManagementClient.updateExternalUserSiteId(dto);
+
+        // then
+        wireMockServer.verify(2, putRequestedFor(urlMatching("/site-management/user-sites/" + randomUserSiteId + "/external"))
+                .withHeader("user-id", equalTo(randomUserId.toString())));
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", "internal", "state", "available")
+                .gauge()
+                .value()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldSendBufferedBodyForUpdateExternalUserSiteIdSoThatItCanBeRetried() {
+        // given
+        wireMockServer.stubFor(WireMock.put(urlMatching("/site-management/user-sites/" + randomUserSiteId + "/external"))
+                .willReturn(aResponse().withStatus(204)));
+
+        // when
+        siteManagementClient.updateExternalUserSiteId(new SetExternalUserSiteIdDTO(randomUserId, randomUserSiteId, randomExternalId));
+
+        // then
+        wireMockServer.verify(putRequestedFor(urlMatching("/site-management/user-sites/" + randomUserSiteId + "/external"))
+                .withHeader("Content-Length", matching("\\d+"))
+                .withoutHeader("Transfer-Encoding"));
+    }
+
     @AfterEach
-    public void after() {
+    public void after() throws IOException {
         MDC.clear();
+        internalRestTemplateBuilder.close();
     }
 
     @AfterAll
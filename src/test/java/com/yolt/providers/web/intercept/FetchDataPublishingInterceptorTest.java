@@ -1,6 +1,7 @@
 package com.yolt.providers.web.intercept;
 
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
+import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,7 +21,8 @@ import java.io.IOException;
 import java.net.URI;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +49,9 @@ public class FetchDataPublishingInterceptorTest {
     @Captor
     private ArgumentCaptor<byte[]> bodyCaptor;
 
+    @Captor
+    private ArgumentCaptor<byte[]> capturedBodyCaptor;
+
     @Mock
     private AbstractClientToken clientToken;
 
@@ -73,38 +78,109 @@ public class FetchDataPublishingInterceptorTest {
     public void shouldPassProviderAndMethodOverWhenTheyArePresent() throws IOException {
         // given
         when(responseSpy.getStatusCode()).thenReturn(HttpStatus.OK);
-        doNothing().when(producerMock).sendDataAsync(any(RawDataSource.class), anyString(), anyString(), any(AbstractClientToken.class), anyString(), anyString());
+        when(producerMock.getMaxCaptureSizeInBytes()).thenReturn(1024);
         when(responseSpy.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes()));
         HttpRequest requestSpy = spy(HttpRequest.class);
         when(requestSpy.getMethod()).thenReturn(HttpMethod.GET);
         when(requestSpy.getURI()).thenReturn(DEFAULT_URI);
 
         // when
-        interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+        ClientHttpResponse response = interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+        String readBody = new String(response.getBody().readAllBytes());
+        response.close();
 
         // then
         assertThat(new String(bodyCaptor.getValue())).isEqualTo(BODY);
-        verify(producerMock).sendDataAsync(RawDataSource.FETCH_DATA, BODY, PROVIDER, clientToken, "GET", DEFAULT_URI.toString());
-        verifyNoMoreInteractions(producerMock);
+        assertThat(readBody).isEqualTo(BODY);
+        verify(producerMock).sendCapturedDataAsync(eq(RawDataSource.FETCH_DATA), capturedBodyCaptor.capture(), eq(false), eq(PROVIDER), eq(clientToken), eq("GET"), eq(DEFAULT_URI.toString()));
+        assertThat(new String(capturedBodyCaptor.getValue())).isEqualTo(BODY);
     }
 
     @Test
     public void shouldPassUnknownOverWhenProviderAndMethodAreAbsent() throws IOException {
         // given
         when(responseSpy.getStatusCode()).thenReturn(HttpStatus.OK);
-        doNothing().when(producerMock).sendDataAsync(any(RawDataSource.class), anyString(), anyString(), any(AbstractClientToken.class), anyString(), anyString());
+        when(producerMock.getMaxCaptureSizeInBytes()).thenReturn(1024);
         when(responseSpy.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes()));
         HttpRequest requestSpy = spy(HttpRequest.class);
         when(requestSpy.getMethod()).thenReturn(null);
         when(requestSpy.getURI()).thenReturn(DEFAULT_URI);
 
         // when
-        interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+        interceptor.intercept(requestSpy, BODY.getBytes(), executionMock).close();
 
         // then
         assertThat(new String(bodyCaptor.getValue())).isEqualTo(BODY);
-        verify(producerMock).sendDataAsync(RawDataSource.FETCH_DATA, BODY, PROVIDER, clientToken, "UNKNOWN", DEFAULT_URI.toString());
-        verifyNoMoreInteractions(producerMock);
+        verify(producerMock).sendCapturedDataAsync(eq(RawDataSource.FETCH_DATA), capturedBodyCaptor.capture(), eq(false), eq(PROVIDER), eq(clientToken), eq("UNKNOWN"), eq(DEFAULT_URI.toString()));
+        assertThat(new String(capturedBodyCaptor.getValue())).isEqualTo(BODY);
+    }
+
+    @Test
+    public void shouldStreamWholeBodyAndPublishTruncatedRawDataWhenBodyExceedsMaximumCaptureSize() throws IOException {
+        // given
+        when(responseSpy.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(producerMock.getMaxCaptureSizeInBytes()).thenReturn(3);
+        when(responseSpy.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes()));
+        HttpRequest requestSpy = spy(HttpRequest.class);
+        when(requestSpy.getMethod()).thenReturn(HttpMethod.GET);
+        when(requestSpy.getURI()).thenReturn(DEFAULT_URI);
+
+        // when
+        ClientHttpResponse response = interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+        String readBody = new String(response.getBody().readAllBytes());
+        response.close();
+
+        // then
+        assertThat(readBody).isEqualTo(BODY);
+        verify(producerMock).sendCapturedDataAsync(eq(RawDataSource.FETCH_DATA), capturedBodyCaptor.capture(), eq(true), eq(PROVIDER), eq(clientToken), eq("GET"), eq(DEFAULT_URI.toString()));
+        assertThat(new String(capturedBodyCaptor.getValue())).isEqualTo("raw");
+        verify(responseSpy).close();
+    }
+
+    @Test
+    public void shouldReplayCapturedBodyWhenBodyIsReadAgain() throws IOException {
+        // given
+        when(responseSpy.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(producerMock.getMaxCaptureSizeInBytes()).thenReturn(1024);
+        when(responseSpy.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes()));
+        HttpRequest requestSpy = spy(HttpRequest.class);
+        when(requestSpy.getMethod()).thenReturn(HttpMethod.GET);
+        when(requestSpy.getURI()).thenReturn(DEFAULT_URI);
+        ClientHttpResponse response = interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+
+        // when
+        String partiallyReadBody = new String(response.getBody().readNBytes(3));
+        String readBody = new String(response.getBody().readAllBytes());
+        String readAgainBody = new String(response.getBody().readAllBytes());
+        response.close();
+
+        // then
+        assertThat(partiallyReadBody).isEqualTo("raw");
+        assertThat(readBody).isEqualTo(BODY);
+        assertThat(readAgainBody).isEqualTo(BODY);
+        verify(responseSpy, times(1)).getBody();
+        verify(producerMock).sendCapturedDataAsync(eq(RawDataSource.FETCH_DATA), capturedBodyCaptor.capture(), eq(false), eq(PROVIDER), eq(clientToken), eq("GET"), eq(DEFAULT_URI.toString()));
+        assertThat(new String(capturedBodyCaptor.getValue())).isEqualTo(BODY);
+    }
+
+    @Test
+    public void shouldNotReadBodyAgainWhenBodyExceedsMaximumCaptureSize() throws IOException {
+        // given
+        when(responseSpy.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(producerMock.getMaxCaptureSizeInBytes()).thenReturn(3);
+        when(responseSpy.getBody()).thenReturn(new ByteArrayInputStream(BODY.getBytes()));
+        HttpRequest requestSpy = spy(HttpRequest.class);
+        when(requestSpy.getMethod()).thenReturn(HttpMethod.GET);
+        when(requestSpy.getURI()).thenReturn(DEFAULT_URI);
+        ClientHttpResponse response = interceptor.intercept(requestSpy, BODY.getBytes(), executionMock);
+        response.getBody().readAllBytes();
+
+        // when
+        ThrowableAssert.ThrowingCallable readAgain = response::getBody;
+
+        // then
+        assertThatIOException().isThrownBy(readAgain);
+        response.close();
     }
 
     @Test
@@ -121,4 +197,5 @@ public class FetchDataPublishingInterceptorTest {
         assertThat(new String(bodyCaptor.getValue())).isEqualTo(BODY);
         verifyNoMoreInteractions(producerMock);
     }
+
 }
@@ -0,0 +1,93 @@
+package com.yolt.providers.web.intercept;
+
+import com.yolt.providers.web.configuration.IntegrationTestContext;
+import nl.ing.lovebird.clienttokens.AbstractClientToken;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@IntegrationTestContext
+class RawDataProducerIntegrationTest {
+
+    @Autowired
+    private RawDataProducer rawDataProducer;
+
+    @Autowired
+    private ConsumerFactory<?, ?> consumerFactory;
+
+    @Value("${yolt.kafka.topics.providerRawData.topic-name}")
+    private String rawDataTopicName;
+
+    private KafkaConsumer<String, byte[]> rawDataConsumer;
+
+    @BeforeEach
+    void beforeEach() {
+        Map<String, Object> configuration = new HashMap<>(consumerFactory.getConfigurationProperties());
+        configuration.put(ConsumerConfig.GROUP_ID_CONFIG, "raw-data-" + UUID.randomUUID());
+        configuration.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        rawDataConsumer = new KafkaConsumer<>(configuration, new StringDeserializer(), new ByteArrayDeserializer());
+        rawDataConsumer.subscribe(List.of(rawDataTopicName));
+    }
+
+    @AfterEach
+    void afterEach() {
+        rawDataConsumer.close();
+    }
+
+    @Test
+    void shouldPublishCapturedRawDataAsBytesWithItsMetadataInTheHeaders() {
+        // given
+        AbstractClientToken clientToken = mock(AbstractClientToken.class);
+        when(clientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
+        byte[] rawData = {(byte) 0x1f, (byte) 0x8b, (byte) 0xff, 0x00, (byte) 0xc3, 0x28};
+        String httpRequestUri = "http://localhost/accounts/" + UUID.randomUUID();
+
+        // when
+        rawDataProducer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, rawData, true, "ABN_AMRO", clientToken, "GET", httpRequestUri);
+
+        // then
+        List<ConsumerRecord<String, byte[]>> consumed = new ArrayList<>();
+        Awaitility.await()
+                .atMost(30, TimeUnit.SECONDS)
+                .until(() -> {
+                    rawDataConsumer.poll(Duration.ofMillis(500)).forEach(record -> {
+                        if (httpRequestUri.equals(header(record, "http-request-uri"))) {
+                            consumed.add(record);
+                        }
+                    });
+                    return !consumed.isEmpty();
+                });
+        ConsumerRecord<String, byte[]> actual = consumed.get(0);
+        assertThat(actual.value()).isEqualTo(rawData);
+        assertThat(header(actual, "raw-data-source")).isEqualTo("FETCH_DATA");
+        assertThat(header(actual, "provider")).isEqualTo("ABN_AMRO");
+        assertThat(header(actual, "http-request-method")).isEqualTo("GET");
+        assertThat(header(actual, "raw-data-truncated")).isEqualTo("true");
+    }
+
+    private static String header(ConsumerRecord<String, byte[]> record, String key) {
+        return record.headers().lastHeader(key) == null ? null : new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -1,25 +1,32 @@
 package com.yolt.providers.web.intercept;
 
-import com.yolt.providers.web.metric.KafkaMessageMetricsContext;
-import com.yolt.providers.web.metric.PayloadSizeMonitoredKafkaTemplateWrapper;
+import com.yolt.providers.web.configuration.RawDataProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import nl.ing.lovebird.clienttokens.AbstractClientToken;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageHeaders;
-import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.kafka.core.ProducerFactory;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class RawDataProducerTest {
@@ -28,25 +35,24 @@ public class RawDataProducerTest {
 
     private RawDataProducer producer;
 
-    @Mock
-    private PayloadSizeMonitoredKafkaTemplateWrapper<String, String> payloadSizeMonitoredKafkaTemplateWrapperMock;
+    private MockProducer<String, byte[]> mockProducer;
 
-    @Captor
-    private ArgumentCaptor<Message<String>> messageCaptor;
+    private MeterRegistry meterRegistry;
 
     @Mock
     private AbstractClientToken clientToken;
 
     @BeforeEach
     public void beforeEach() {
-        when(clientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
-        when(payloadSizeMonitoredKafkaTemplateWrapperMock.send(any(Message.class), any(KafkaMessageMetricsContext.class))).thenReturn(mock(ListenableFuture.class));
-        producer = new RawDataProducer(TOPIC_NAME, payloadSizeMonitoredKafkaTemplateWrapperMock);
+        mockProducer = new MockProducer<>(true, new StringSerializer(), new ByteArraySerializer());
+        meterRegistry = new SimpleMeterRegistry();
+        producer = rawDataProducer(new RawDataProperties(), Runnable::run);
     }
 
     @Test
     public void shouldPassAllTheParamsProperlyWhenSendingData() {
         // given
+        when(clientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
         String rawData = "rawData";
         String providerKey = "ABN_AMRO";
         String httpMethod = "GET";
@@ -57,14 +63,108 @@ public class RawDataProducerTest {
         producer.sendDataAsync(source, rawData, providerKey, clientToken, httpMethod, httpUrl);
 
         // then
-        verify(payloadSizeMonitoredKafkaTemplateWrapperMock).send(messageCaptor.capture(), any(KafkaMessageMetricsContext.class));
-        Message<String> actual = messageCaptor.getValue();
-        assertThat(actual.getPayload()).isEqualTo(rawData);
-        MessageHeaders actualHeaders = actual.getHeaders();
-        assertThat(actualHeaders.get(KafkaHeaders.TOPIC)).isEqualTo(TOPIC_NAME);
-        assertThat(actualHeaders.get("raw-data-source")).isEqualTo("FETCH_DATA");
-        assertThat(actualHeaders.get("provider")).isEqualTo(providerKey);
-        assertThat(actualHeaders.get("http-request-method")).isEqualTo(httpMethod);
-        assertThat(actualHeaders.get("http-request-uri")).isEqualTo(httpUrl);
+        assertThat(mockProducer.history()).hasSize(1);
+        ProducerRecord<String, byte[]> actual = mockProducer.history().get(0);
+        assertThat(actual.topic()).isEqualTo(TOPIC_NAME);
+        assertThat(actual.value()).isEqualTo(rawData.getBytes(StandardCharsets.UTF_8));
+        assertThat(header(actual, "raw-data-source")).isEqualTo("FETCH_DATA");
+        assertThat(header(actual, "provider")).isEqualTo(providerKey);
+        assertThat(header(actual, "http-request-method")).isEqualTo(httpMethod);
+        assertThat(header(actual, "http-request-uri")).isEqualTo(httpUrl);
+        assertThat(actual.headers().lastHeader("raw-data-truncated")).isNull();
+    }
+
+    @Test
+    public void shouldSendCapturedRawDataAsIsAndMarkItTruncated() {
+        // given
+        when(clientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
+        byte[] rawData = {(byte) 0xff, 0x00, (byte) 0xc3, 0x28};
+
+        // when
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, rawData, true, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+
+        // then
+        assertThat(mockProducer.history()).hasSize(1);
+        ProducerRecord<String, byte[]> actual = mockProducer.history().get(0);
+        assertThat(actual.value()).isEqualTo(rawData);
+        assertThat(header(actual, "raw-data-truncated")).isEqualTo("true");
+    }
+
+    @Test
+    public void shouldDropRawDataThatDoesNotFitInTheQueuedBytesUntilQueuedRawDataIsPublished() {
+        // given
+        when(clientToken.getClientGroupIdClaim()).thenReturn(UUID.randomUUID());
+        RawDataProperties rawDataProperties = new RawDataProperties();
+        rawDataProperties.setPublisherQueueCapacityInBytes(4);
+        List<Runnable> queue = new ArrayList<>();
+        producer = rawDataProducer(rawDataProperties, queue::add);
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, new byte[3], false, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+
+        // when
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, new byte[2], false, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+
+        // then
+        assertThat(queue).hasSize(1);
+        assertThat(meterRegistry.get("raw_data_dropped").counter().count()).isEqualTo(1);
+
+        // when
+        queue.remove(0).run();
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, new byte[2], false, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+
+        // then
+        assertThat(mockProducer.history()).hasSize(1);
+        assertThat(queue).hasSize(1);
+        assertThat(meterRegistry.get("raw_data_dropped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountRawDataAndReleaseItsBytesWhenThePublisherRejectsIt() {
+        // given
+        RawDataProperties rawDataProperties = new RawDataProperties();
+        rawDataProperties.setPublisherQueueCapacityInBytes(4);
+        producer = rawDataProducer(rawDataProperties, task -> {
+            throw new RejectedExecutionException("queue is full");
+        });
+
+        // when
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, new byte[4], false, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+        producer.sendCapturedDataAsync(RawDataSource.FETCH_DATA, new byte[4], false, "ABN_AMRO", clientToken, "GET", "http://localhost/accounts");
+
+        // then
+        assertThat(mockProducer.history()).isEmpty();
+        assertThat(meterRegistry.get("raw_data_dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldBatchAndCompressRawDataWithBinaryPayloadsWhenCreatingProducerConfiguration() {
+        // given
+        RawDataProperties rawDataProperties = new RawDataProperties();
+        rawDataProperties.setProducerCompressionType("zstd");
+        Map<String, Object> applicationProducerConfiguration = Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092",
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.TRANSACTIONAL_ID_CONFIG, "tx-");
+
+        // when
+        Map<String, Object> configuration = RawDataProducer.rawDataProducerConfiguration(applicationProducerConfiguration, rawDataProperties);
+
+        // then
+        assertThat(configuration)
+                .containsEntry(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092")
+                .containsEntry(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class)
+                .containsEntry(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class)
+                .containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "zstd")
+                .containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+                .containsEntry(ProducerConfig.BATCH_SIZE_CONFIG, 256 * 1024)
+                .doesNotContainKey(ProducerConfig.TRANSACTIONAL_ID_CONFIG);
+    }
+
+    private RawDataProducer rawDataProducer(RawDataProperties rawDataProperties, Executor rawDataPublisherExecutor) {
+        ProducerFactory<String, byte[]> rawDataProducerFactory = () -> mockProducer;
+        return new RawDataProducer(TOPIC_NAME, rawDataProducerFactory, rawDataProperties, meterRegistry, new StaticApplicationContext(), rawDataPublisherExecutor);
+    }
+
+    private static String header(ProducerRecord<String, byte[]> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,84 @@
+package com.yolt.providers.web.metric;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsClientHttpRequestInterceptorTest {
+
+    private static final String PROVIDER = "ABN_AMRO";
+    private static final String TIMER_METRIC_NAME = "restclient.providers.request.duration";
+
+    @Mock
+    private ClientHttpRequestExecution execution;
+
+    private final HttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://localhost/accounts"));
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void shouldAskTagsOnceAndReuseTimerWhenMethodAndStatusAreTheSame() throws IOException {
+        // given
+        RestTemplateExchangeTagsProvider tagsProvider = spy(new DefaultRestTemplateExchangeTagsProvider());
+        MetricsClientHttpRequestInterceptor interceptor = new MetricsClientHttpRequestInterceptor(PROVIDER, meterRegistry, tagsProvider);
+        givenResponse(HttpStatus.OK);
+
+        // when
+        interceptor.intercept(request, new byte[0], execution);
+        interceptor.intercept(request, new byte[0], execution);
+
+        // then
+        Timer timer = meterRegistry.get(TIMER_METRIC_NAME)
+                .tags("provider", PROVIDER, "method", "GET", "http_status", "200 OK", "http_status_desc", "SUCCESS")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+        verify(tagsProvider).getTags(eq(PROVIDER), eq(request), any());
+    }
+
+    @Test
+    void shouldRecordOnOverflowTimerWhenMaximumNumberOfTimersIsReached() throws IOException {
+        // given
+        MetricsClientHttpRequestInterceptor interceptor = new MetricsClientHttpRequestInterceptor(PROVIDER, meterRegistry, new DefaultRestTemplateExchangeTagsProvider(), 1);
+        givenResponse(HttpStatus.OK);
+        interceptor.intercept(request, new byte[0], execution);
+        givenResponse(HttpStatus.NOT_FOUND);
+
+        // when
+        interceptor.intercept(request, new byte[0], execution);
+
+        // then
+        assertThat(meterRegistry.get(TIMER_METRIC_NAME).tag("http_status", "200 OK").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find(TIMER_METRIC_NAME).tag("http_status", "404 NOT_FOUND").timer()).isNull();
+        assertThat(meterRegistry.get(TIMER_METRIC_NAME)
+                .tags("provider", PROVIDER, "method", "OVERFLOW", "http_status", "OVERFLOW", "http_status_desc", "OVERFLOW")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    private void givenResponse(final HttpStatus status) throws IOException {
+        when(execution.execute(eq(request), any())).thenReturn(new MockClientHttpResponse(new byte[0], status));
+    }
+}
@@ -0,0 +1,83 @@
+package com.yolt.providers.web.metric;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-send cost of resolving the payload size summary by searching the registry, as the wrapper used to
+ * do, with the cached summaries of {@link PayloadSizeMonitoredKafkaTemplateWrapper}. The registry holds the meters of
+ * the given number of contexts.
+ * <p>
+ * Run with the main method, for example from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadSizeMonitoredKafkaTemplateWrapperBenchmark {
+
+    private static final String KAFKA_PAYLOAD_SIZE_METRIC_NAME = "providers.kafka.payload.size";
+
+    @Param({"10", "1000"})
+    private int contexts;
+
+    private MeterRegistry meterRegistry;
+    private PayloadSizeMonitoredKafkaTemplateWrapper<String, String> wrapper;
+    private KafkaMessageMetricsContext[] metricsContexts;
+
+    @Setup
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        wrapper = new PayloadSizeMonitoredKafkaTemplateWrapper<>(meterRegistry, null);
+        metricsContexts = new KafkaMessageMetricsContext[contexts];
+        for (int i = 0; i < contexts; i++) {
+            metricsContexts[i] = KafkaMessageMetricsContext.from("topic", UUID.randomUUID().toString(), "PROVIDER");
+            wrapper.payloadSizeSummary(metricsContexts[i]);
+        }
+    }
+
+    @Benchmark
+    public DistributionSummary registrySearch() {
+        KafkaMessageMetricsContext context = nextContext();
+        return meterRegistry.find(KAFKA_PAYLOAD_SIZE_METRIC_NAME)
+                .tags(context.asTags())
+                .summary();
+    }
+
+    @Benchmark
+    public DistributionSummary cachedSummary() {
+        return wrapper.payloadSizeSummary(nextContext());
+    }
+
+    private KafkaMessageMetricsContext nextContext() {
+        return metricsContexts[ThreadLocalRandom.current().nextInt(contexts)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PayloadSizeMonitoredKafkaTemplateWrapperBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
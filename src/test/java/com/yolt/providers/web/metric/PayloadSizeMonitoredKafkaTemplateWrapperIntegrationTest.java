@@ -86,4 +86,20 @@ class PayloadSizeMonitoredKafkaTemplateWrapperIntegrationTest {
         assertThat(summary.max())
                 .isEqualTo(1200157);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldResolvePayloadSizeSummaryOnceWhenContextsAreEqual() {
+        // given
+        String clientId = UUID.randomUUID().toString();
+        DistributionSummary expected = payloadSizeMonitoredKafkaTemplateWrapper.payloadSizeSummary(
+                KafkaMessageMetricsContext.from("test-topic", clientId, "FAKE_PROVIDER"));
+
+        // when
+        DistributionSummary actual = payloadSizeMonitoredKafkaTemplateWrapper.payloadSizeSummary(
+                KafkaMessageMetricsContext.from("test-topic", clientId, "FAKE_PROVIDER"));
+
+        // then
+        assertThat(actual).isSameAs(expected);
+        assertThat(meterRegistry.get("providers.kafka.payload.size").tag("clientId", clientId).summary()).isSameAs(expected);
+    }
+}
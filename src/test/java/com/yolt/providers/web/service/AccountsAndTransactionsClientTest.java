@@ -55,6 +55,9 @@ class AccountsAndTransactionsClientTest {
         assertThat(new String(body)).contains(activityId.toString());
         // assert that there's no InternalRestTemplateBuilder screwing up and setting an empty user-id header that in turns screws up the VerifiedClientTokenParameterResolver on the receiving side..
         assertThat(all.get(0).getAllHeaderKeys()).doesNotContain("user-id");
+        // the body is streamed, so its length is not known upfront
+        assertThat(all.get(0).getHeader("Transfer-Encoding")).isEqualTo("chunked");
+        assertThat(all.get(0).containsHeader("Content-Length")).isFalse();
 
     }
 
@@ -0,0 +1,129 @@
+package com.yolt.providers.web.service;
+
+import com.yolt.providers.web.configuration.IntegrationTestContext;
+import com.yolt.providers.web.metric.PayloadSizeMonitoredKafkaTemplateWrapper;
+import com.yolt.providers.web.service.dto.IngestionAccountDTO;
+import com.yolt.providers.web.service.dto.IngestionRequestDTO;
+import nl.ing.lovebird.clienttokens.ClientUserToken;
+import nl.ing.lovebird.clienttokens.test.TestClientTokens;
+import nl.ing.lovebird.providerdomain.ProviderTransactionDTO;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_COUNT_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_GROUP_ID_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_REQUEST_CHUNK_MESSAGE_TYPE;
+import static com.yolt.providers.web.service.AccountsProducer.MESSAGE_TYPE_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@IntegrationTestContext
+class AccountsProducerIntegrationTest {
+
+    @Autowired
+    private PayloadSizeMonitoredKafkaTemplateWrapper<String, IngestionRequestDTO> payloadSizeMonitoredKafkaTemplateWrapper;
+
+    @Autowired
+    private ConsumerFactory<?, ?> consumerFactory;
+
+    @Autowired
+    private TestClientTokens testClientTokens;
+
+    @Value("${yolt.kafka.topics.ingestion-requests.topic-name}")
+    private String ingestionRequestsTopicName;
+
+    private KafkaConsumer<String, String> ingestionRequestsConsumer;
+
+    @BeforeEach
+    void beforeEach() {
+        Map<String, Object> configuration = new HashMap<>(consumerFactory.getConfigurationProperties());
+        configuration.put(ConsumerConfig.GROUP_ID_CONFIG, "ingestion-requests-" + UUID.randomUUID());
+        configuration.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        ingestionRequestsConsumer = new KafkaConsumer<>(configuration, new StringDeserializer(), new StringDeserializer());
+        ingestionRequestsConsumer.subscribe(List.of(ingestionRequestsTopicName));
+    }
+
+    @AfterEach
+    void afterEach() {
+        ingestionRequestsConsumer.close();
+    }
+
+    @Test
+    void shouldPublishChunksInOrderOnOnePartitionFollowedByCompletionMarker() {
+        // given
+        AccountsAndTransactionsClient accountsAndTransactionsClient = mock(AccountsAndTransactionsClient.class);
+        AccountsProducer accountsProducer = new AccountsProducer(ingestionRequestsTopicName, payloadSizeMonitoredKafkaTemplateWrapper, accountsAndTransactionsClient, true);
+        ClientUserToken clientUserToken = testClientTokens.createClientUserToken(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID activityId = UUID.randomUUID();
+        List<IngestionAccountDTO> accounts = List.of(account(clientUserToken.getUserIdClaim(), 6_000));
+
+        // when
+        accountsProducer.publishAccountAndTransactions(activityId, UUID.randomUUID(), UUID.randomUUID(), accounts, clientUserToken, "YOLT_PROVIDER");
+
+        // then
+        List<ConsumerRecord<String, String>> consumed = new ArrayList<>();
+        Awaitility.await()
+                .atMost(30, TimeUnit.SECONDS)
+                .until(() -> {
+                    ingestionRequestsConsumer.poll(Duration.ofMillis(500)).forEach(record -> {
+                        if (record.value().contains(activityId.toString())) {
+                            consumed.add(record);
+                        }
+                    });
+                    return consumed.size() == 3;
+                });
+        verifyNoInteractions(accountsAndTransactionsClient);
+        assertThat(consumed)
+                .extracting(ConsumerRecord::partition)
+                .containsOnly(consumed.get(0).partition());
+        assertThat(consumed)
+                .extracting(record -> header(record, INGESTION_CHUNK_GROUP_ID_HEADER))
+                .containsOnly(header(consumed.get(0), INGESTION_CHUNK_GROUP_ID_HEADER));
+        assertThat(consumed)
+                .extracting(record -> header(record, INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER))
+                .containsExactly("0", "1", "2");
+        assertThat(consumed)
+                .extracting(record -> header(record, MESSAGE_TYPE_HEADER))
+                .containsExactly(INGESTION_REQUEST_CHUNK_MESSAGE_TYPE, INGESTION_REQUEST_CHUNK_MESSAGE_TYPE, INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE);
+        assertThat(header(consumed.get(2), INGESTION_CHUNK_COUNT_HEADER)).isEqualTo("2");
+    }
+
+    private static IngestionAccountDTO account(UUID userId, int numberOfTransactions) {
+        List<ProviderTransactionDTO> transactions = IntStream.range(0, numberOfTransactions)
+                .mapToObj(i -> ProviderTransactionDTO.builder()
+                        .externalId(String.valueOf(i))
+                        .amount(BigDecimal.valueOf(i))
+                        .build())
+                .collect(Collectors.toList());
+        return new IngestionAccountDTO(userId, UUID.randomUUID(), UUID.randomUUID(), "YOLT_PROVIDER",
+                ProviderAccountDTOMother.newValidCurrentAccountDTOBuilder().transactions(transactions).build());
+    }
+
+    private static String header(ConsumerRecord<String, String> record, String key) {
+        return record.headers().lastHeader(key) == null ? null : new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,166 @@
+package com.yolt.providers.web.service;
+
+import com.yolt.providers.web.metric.KafkaMessageMetricsContext;
+import com.yolt.providers.web.metric.PayloadSizeMonitoredKafkaTemplateWrapper;
+import com.yolt.providers.web.service.dto.IngestionAccountDTO;
+import com.yolt.providers.web.service.dto.IngestionRequestDTO;
+import nl.ing.lovebird.clienttokens.ClientUserToken;
+import nl.ing.lovebird.providerdomain.ProviderTransactionDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.Message;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_COUNT_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_GROUP_ID_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE;
+import static com.yolt.providers.web.service.AccountsProducer.INGESTION_REQUEST_CHUNK_MESSAGE_TYPE;
+import static com.yolt.providers.web.service.AccountsProducer.MESSAGE_TYPE_HEADER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountsProducerTest {
+
+    private static final String TOPIC = "ingestionRequest";
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID ACTIVITY_ID = UUID.randomUUID();
+    private static final UUID USER_SITE_ID = UUID.randomUUID();
+    private static final UUID SITE_ID = UUID.randomUUID();
+
+    @Mock
+    private PayloadSizeMonitoredKafkaTemplateWrapper<String, IngestionRequestDTO> kafkaTemplateWrapper;
+
+    @Mock
+    private AccountsAndTransactionsClient accountsAndTransactionsClient;
+
+    @Mock
+    private ClientUserToken clientUserToken;
+
+    @Test
+    void shouldPublishLargeIngestionRequestInChunksFollowedByCompletionMarkerWhenChunkedPublishingIsEnabled() {
+        // given
+        AccountsProducer accountsProducer = new AccountsProducer(TOPIC, kafkaTemplateWrapper, accountsAndTransactionsClient, true);
+        when(clientUserToken.getUserIdClaim()).thenReturn(USER_ID);
+        when(clientUserToken.getClientIdClaim()).thenReturn(UUID.randomUUID());
+        when(kafkaTemplateWrapper.send(any(), any(KafkaMessageMetricsContext.class))).thenAnswer(invocation -> sent());
+        List<IngestionAccountDTO> accounts = List.of(account(12_000), account(10), account(3_000));
+
+        // when
+        accountsProducer.publishAccountAndTransactions(ACTIVITY_ID, USER_SITE_ID, SITE_ID, accounts, clientUserToken, "YOLT_PROVIDER");
+
+        // then
+        ArgumentCaptor<Message<IngestionRequestDTO>> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaTemplateWrapper, times(5)).send(messageCaptor.capture(), any(KafkaMessageMetricsContext.class));
+        verifyNoInteractions(accountsAndTransactionsClient);
+        List<Message<IngestionRequestDTO>> messages = messageCaptor.getAllValues();
+        assertThat(messages)
+                .extracting(message -> message.getHeaders().get(INGESTION_CHUNK_GROUP_ID_HEADER))
+                .containsOnly(messages.get(0).getHeaders().get(INGESTION_CHUNK_GROUP_ID_HEADER));
+        assertThat(messages)
+                .extracting(message -> message.getHeaders().get(INGESTION_CHUNK_SEQUENCE_NUMBER_HEADER))
+                .containsExactly("0", "1", "2", "3", "4");
+        assertThat(messages)
+                .extracting(message -> message.getPayload().getIngestionAccounts().stream()
+                        .map(account -> account.getTransactions().size())
+                        .collect(Collectors.toList()))
+                .containsExactly(List.of(5_000), List.of(5_000), List.of(2_000), List.of(10, 3_000), List.of());
+        assertThat(messages)
+                .extracting(message -> message.getPayload().getActivityId())
+                .containsOnly(ACTIVITY_ID);
+        assertThat(messages.subList(0, 4))
+                .allSatisfy(message -> assertThat(message.getHeaders()).doesNotContainKey(INGESTION_CHUNK_COUNT_HEADER));
+        assertThat(messages.get(4).getHeaders().get(INGESTION_CHUNK_COUNT_HEADER)).isEqualTo("4");
+        assertThat(messages)
+                .extracting(message -> message.getHeaders().get(MESSAGE_TYPE_HEADER))
+                .containsExactly(INGESTION_REQUEST_CHUNK_MESSAGE_TYPE, INGESTION_REQUEST_CHUNK_MESSAGE_TYPE, INGESTION_REQUEST_CHUNK_MESSAGE_TYPE,
+                        INGESTION_REQUEST_CHUNK_MESSAGE_TYPE, INGESTION_REQUEST_CHUNKS_COMPLETED_MESSAGE_TYPE);
+    }
+
+    @Test
+    void shouldPostLargeIngestionRequestOverHttpWithoutCompletionMarkerWhenChunkCanNotBePublished() {
+        // given
+        AccountsProducer accountsProducer = new AccountsProducer(TOPIC, kafkaTemplateWrapper, accountsAndTransactionsClient, true);
+        when(clientUserToken.getUserIdClaim()).thenReturn(USER_ID);
+        when(clientUserToken.getClientIdClaim()).thenReturn(UUID.randomUUID());
+        SettableListenableFuture<SendResult<String, IngestionRequestDTO>> failed = new SettableListenableFuture<>();
+        failed.setException(new IllegalStateException("broker not available"));
+        when(kafkaTemplateWrapper.send(any(), any(KafkaMessageMetricsContext.class))).thenAnswer(invocation -> sent()).thenReturn(failed);
+        List<IngestionAccountDTO> accounts = List.of(account(12_000));
+
+        // when
+        accountsProducer.publishAccountAndTransactions(ACTIVITY_ID, USER_SITE_ID, SITE_ID, accounts, clientUserToken, "YOLT_PROVIDER");
+
+        // then
+        ArgumentCaptor<Message<IngestionRequestDTO>> messageCaptor = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaTemplateWrapper, times(3)).send(messageCaptor.capture(), any(KafkaMessageMetricsContext.class));
+        assertThat(messageCaptor.getAllValues())
+                .extracting(message -> message.getHeaders().get(MESSAGE_TYPE_HEADER))
+                .containsOnly(INGESTION_REQUEST_CHUNK_MESSAGE_TYPE);
+        ArgumentCaptor<IngestionRequestDTO> ingestionRequestCaptor = ArgumentCaptor.forClass(IngestionRequestDTO.class);
+        verify(accountsAndTransactionsClient).postProviderAccounts(eq(clientUserToken), ingestionRequestCaptor.capture());
+        assertThat(ingestionRequestCaptor.getValue().getIngestionAccounts()).singleElement()
+                .satisfies(account -> assertThat(account.getTransactions()).hasSize(12_000));
+    }
+
+    @Test
+    void shouldKeepTransactionOrderAndAccountDataWhenAccountIsSplitOverChunks() {
+        // given
+        IngestionAccountDTO account = account(7);
+
+        // when
+        List<List<IngestionAccountDTO>> chunks = AccountsProducer.splitInChunks(List.of(account), 3);
+
+        // then
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).singleElement().satisfies(copy -> {
+            assertThat(copy.getAccountId()).isEqualTo(account.getAccountId());
+            assertThat(copy.getYoltUserSiteId()).isEqualTo(account.getYoltUserSiteId());
+        }));
+        assertThat(chunks.stream().flatMap(chunk -> chunk.get(0).getTransactions().stream()).collect(Collectors.toList()))
+                .containsExactlyElementsOf(account.getTransactions());
+    }
+
+    @Test
+    void shouldPostLargeIngestionRequestOverHttpWhenChunkedPublishingIsDisabled() {
+        // given
+        AccountsProducer accountsProducer = new AccountsProducer(TOPIC, kafkaTemplateWrapper, accountsAndTransactionsClient, false);
+        List<IngestionAccountDTO> accounts = List.of(account(5_001));
+
+        // when
+        accountsProducer.publishAccountAndTransactions(ACTIVITY_ID, USER_SITE_ID, SITE_ID, accounts, clientUserToken, "YOLT_PROVIDER");
+
+        // then
+        verify(accountsAndTransactionsClient).postProviderAccounts(eq(clientUserToken), any(IngestionRequestDTO.class));
+        verifyNoInteractions(kafkaTemplateWrapper);
+    }
+
+    private static SettableListenableFuture<SendResult<String, IngestionRequestDTO>> sent() {
+        SettableListenableFuture<SendResult<String, IngestionRequestDTO>> future = new SettableListenableFuture<>();
+        future.set(new SendResult<>(null, null));
+        return future;
+    }
+
+    private static IngestionAccountDTO account(int numberOfTransactions) {
+        List<ProviderTransactionDTO> transactions = IntStream.range(0, numberOfTransactions)
+                .mapToObj(i -> ProviderTransactionDTO.builder()
+                        .externalId(String.valueOf(i))
+                        .amount(BigDecimal.valueOf(i))
+                        .build())
+                .collect(Collectors.toList());
+        return new IngestionAccountDTO(USER_ID, USER_SITE_ID, SITE_ID, "YOLT_PROVIDER",
+                ProviderAccountDTOMother.newValidCurrentAccountDTOBuilder().transactions(transactions).build());
+    }
+}
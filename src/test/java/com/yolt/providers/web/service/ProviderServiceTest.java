@@ -29,17 +29,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.yolt.providers.common.providerdetail.dto.AisSiteDetails.site;
 import static com.yolt.providers.common.providerdetail.dto.CountryCode.GB;
 import static com.yolt.providers.common.providerdetail.dto.ProviderBehaviour.STATE;
 import static com.yolt.providers.common.providerdetail.dto.ProviderType.DIRECT_CONNECTION;
+import static com.yolt.providers.web.service.ProviderService.PROVIDER_MDC_KEY;
 import static java.util.List.of;
 import static nl.ing.lovebird.providerdomain.AccountType.*;
 import static nl.ing.lovebird.providerdomain.ServiceType.AIS;
@@ -70,6 +77,8 @@ public class ProviderServiceTest {
     private CircuitBreakerAisService circuitBreakerAisService;
     @Mock
     private SiteDetailsService siteDetailsService;
+    @Spy
+    private SyncTaskExecutor fetchDataResultPublisherExecutor;
 
     @InjectMocks
     private ProviderService service;
@@ -123,7 +132,7 @@ public class ProviderServiceTest {
                 providerRequestId);
 
         when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(responseDTO);
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
 
         // when
         service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
@@ -181,7 +190,7 @@ public class ProviderServiceTest {
 
         when(providerFactoryService.getProvider(any(String.class), eq(UrlDataProvider.class), eq(AIS), any(VersionType.class))).thenReturn(urlDataProvider);
         when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(responseDTO);
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
 
         // when
         service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
@@ -207,7 +216,7 @@ public class ProviderServiceTest {
         when(providerFactoryService.getProvider(any(String.class), eq(UrlDataProvider.class), eq(AIS), any(VersionType.class))).thenReturn(urlDataProvider);
 
         when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(responseDTO);
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
 
         // when
         service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
@@ -237,7 +246,7 @@ public class ProviderServiceTest {
         when(providerFactoryService.getProvider(any(String.class), eq(UrlDataProvider.class), eq(AIS), any(VersionType.class))).thenReturn(urlDataProvider);
 
         when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
-                .thenReturn(responseDTO);
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
 
         // when
         service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
@@ -245,4 +254,70 @@ public class ProviderServiceTest {
         // then
         verify(providerServiceResponseProducer).sendMessage(eq(new FetchDataResultDTO(providerRequestId, ProviderServiceResponseStatus.BACK_PRESSURE_REQUEST)), eq(CLIENT_USER_TOKEN));
     }
+
+    @Test
+    public void shouldPublishFetchDataResultWithMdcOfRequestAndClearMdcOfPublishingThreadAfterwards() {
+        // given
+        String encryptedAccessMeans = AesEncryptionUtil.encrypt(MY_ACCESS_MEANS, secretKey);
+        AccessMeansDTO encryptedAccessMeansDTO = new AccessMeansDTO(USER_ID, encryptedAccessMeans,
+                new Date(), new Date());
+        ApiFetchDataDTO apiFetchDataDTO = new ApiFetchDataDTO(USER_ID, Instant.now(), encryptedAccessMeansDTO, new AuthenticationMeansReference(CLIENT_ID, redirectUrlId), providerRequestId, null, null, null, new UserSiteDataFetchInformation(null, USER_SITE_ID, null, Collections.emptyList(), Collections.emptyList()));
+        ProviderServiceResponseDTO responseDTO = new ProviderServiceResponseDTO(
+                Collections.emptyList(),
+                ProviderServiceResponseStatus.BACK_PRESSURE_REQUEST,
+                providerRequestId);
+
+        when(providerFactoryService.getProvider(any(String.class), eq(UrlDataProvider.class), eq(AIS), any(VersionType.class))).thenReturn(urlDataProvider);
+        when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
+
+        AtomicReference<Map<String, String>> mdcWhilePublishing = new AtomicReference<>();
+        AtomicReference<Map<String, String>> mdcAfterPublishing = new AtomicReference<>();
+        doAnswer(invocation -> {
+            mdcWhilePublishing.set(MDC.getCopyOfContextMap());
+            return null;
+        }).when(providerServiceResponseProducer).sendMessage(any(FetchDataResultDTO.class), any());
+        doAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            Thread publishingThread = new Thread(() -> {
+                task.run();
+                mdcAfterPublishing.set(MDC.getCopyOfContextMap());
+            });
+            publishingThread.start();
+            publishingThread.join();
+            return null;
+        }).when(fetchDataResultPublisherExecutor).execute(any());
+
+        // when
+        service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
+
+        // then
+        assertThat(mdcWhilePublishing.get()).containsEntry(PROVIDER_MDC_KEY, YOLT_PROVIDER_NAME);
+        assertThat(mdcAfterPublishing.get()).isNullOrEmpty();
+    }
+
+    @Test
+    public void shouldNotPublishFetchDataResultOnCompletingThreadWhenPublisherRejectsIt() {
+        // given
+        String encryptedAccessMeans = AesEncryptionUtil.encrypt(MY_ACCESS_MEANS, secretKey);
+        AccessMeansDTO encryptedAccessMeansDTO = new AccessMeansDTO(USER_ID, encryptedAccessMeans,
+                new Date(), new Date());
+        ApiFetchDataDTO apiFetchDataDTO = new ApiFetchDataDTO(USER_ID, Instant.now(), encryptedAccessMeansDTO, new AuthenticationMeansReference(CLIENT_ID, redirectUrlId), providerRequestId, null, null, null, new UserSiteDataFetchInformation(null, USER_SITE_ID, null, Collections.emptyList(), Collections.emptyList()));
+        ProviderServiceResponseDTO responseDTO = new ProviderServiceResponseDTO(
+                Collections.emptyList(),
+                ProviderServiceResponseStatus.BACK_PRESSURE_REQUEST,
+                providerRequestId);
+
+        when(providerFactoryService.getProvider(any(String.class), eq(UrlDataProvider.class), eq(AIS), any(VersionType.class))).thenReturn(urlDataProvider);
+        when(circuitBreakerAisService.fetchDataAsync(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(responseDTO));
+        doThrow(new RejectedExecutionException("queue is full")).when(fetchDataResultPublisherExecutor).execute(any());
+
+        // when
+        service.fetchDataAsync(YOLT_PROVIDER_NAME, apiFetchDataDTO, SITE_ID, CLIENT_USER_TOKEN, false);
+
+        // then
+        verify(providerServiceResponseProducer, never()).sendMessage(any(FetchDataResultDTO.class), any());
+        verifyNoInteractions(accountsProducer);
+    }
 }
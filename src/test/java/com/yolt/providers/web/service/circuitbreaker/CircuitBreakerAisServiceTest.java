@@ -41,6 +41,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.Writer;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -507,6 +508,76 @@ class CircuitBreakerAisServiceTest {
         logger.detachAppender(mockAppender);
     }
 
+    @Test
+    public void shouldNotSerializeProviderServiceResponseWhenRddLoggingIsDisabled() throws Exception {
+        // given
+        Logger logger = (Logger) LoggerFactory.getLogger(CircuitBreakerAisService.class);
+        logger.setLevel(Level.INFO);
+        ApiFetchDataDTO apiFetchDataDTO = createApiFetchDataDTO();
+        when(urlDataProvider.fetchData(any(UrlFetchDataRequest.class))).thenThrow(new ProviderFetchDataException());
+
+        // when
+        fetchDataAsync(apiFetchDataDTO);
+
+        // then
+        verifyNoInteractions(objectMapper);
+    }
+
+    @Test
+    public void shouldTruncateProviderServiceResponseInRddWhenItExceedsMaximumLength() throws Exception {
+        // given
+        Appender<ILoggingEvent> mockAppender = mock(Appender.class);
+        ArgumentCaptor<ILoggingEvent> captorLoggingEvent = ArgumentCaptor.forClass(ILoggingEvent.class);
+        Logger logger = (Logger) LoggerFactory.getLogger(CircuitBreakerAisService.class);
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(mockAppender);
+        ApiFetchDataDTO apiFetchDataDTO = createApiFetchDataDTO();
+        when(urlDataProvider.fetchData(any(UrlFetchDataRequest.class))).thenThrow(new ProviderFetchDataException());
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(0);
+            writer.write("x".repeat(2 * 1024 * 1024));
+            return null;
+        }).when(objectMapper).writeValue(any(Writer.class), any(ProviderServiceResponseDTO.class));
+
+        // when
+        fetchDataAsync(apiFetchDataDTO);
+
+        // then
+        verify(mockAppender, atLeastOnce()).doAppend(captorLoggingEvent.capture());
+        assertThat(captorLoggingEvent.getAllValues())
+                .filteredOn(event -> event.getLevel() == Level.DEBUG)
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .singleElement()
+                .satisfies(message -> assertThat(message)
+                        .startsWith(" ProviderServiceResponseDTO (truncated to 1048576 characters): xxx")
+                        .hasSizeLessThan(1024 * 1024 + 100));
+        logger.detachAppender(mockAppender);
+        logger.setLevel(null);
+    }
+
+    private ApiFetchDataDTO createApiFetchDataDTO() {
+        String encryptedAccessMeans = AesEncryptionUtil.encrypt(MY_ACCESS_MEANS, secretKey);
+        AccessMeansDTO encryptedAccessMeansDTO = new AccessMeansDTO(USER_ID, encryptedAccessMeans,
+                new Date(), new Date());
+        ApiFetchDataDTO apiFetchDataDTO = new ApiFetchDataDTO(USER_ID, Instant.now(), encryptedAccessMeansDTO, new AuthenticationMeansReference(CLIENT_ID, redirectUrlId), null, null, null, null, new UserSiteDataFetchInformation(null, USER_SITE_ID, null, Collections.emptyList(), Collections.emptyList()));
+        ReflectionTestUtils.setField(apiFetchDataDTO, "providerRequestId", providerRequestId);
+        return apiFetchDataDTO;
+    }
+
+    private void fetchDataAsync(ApiFetchDataDTO apiFetchDataDTO) {
+        circuitBreakerAisService.fetchDataAsync(clientUserToken,
+                SITE_ID,
+                YOLT_PROVIDER,
+                REDIRECT_URL_ID,
+                urlDataProvider,
+                getUrlFetchDataRequest(apiFetchDataDTO),
+                apiFetchDataDTO,
+                accountsFilterService,
+                transactionsDataLimiter,
+                accountsPostProcessingService,
+                UUID.randomUUID());
+    }
+
     private UrlFetchDataRequest getUrlFetchDataRequest(ApiFetchDataDTO apiFetchDataDTO) {
         return new UrlFetchDataRequest(
                 apiFetchDataDTO.getUserId(),